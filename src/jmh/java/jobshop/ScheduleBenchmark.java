@@ -0,0 +1,90 @@
+package jobshop;
+
+import jobshop.encodings.CompactResourceOrder;
+import jobshop.encodings.JobNumbers;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Task;
+import jobshop.solvers.DispatchRule;
+import jobshop.solvers.GluttonousSolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks of the encodings and of the Schedule methods used in the hot paths of the solvers.
+ *
+ * Each benchmark works on the solution of the SPT gluttonous solver of the instance.
+ * Run with `./gradlew jmh`, allocation rates are reported by the gc profiler. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScheduleBenchmark {
+
+    @Param({"ft06", "ft10", "la20", "la40", "ta71", "ta75", "ta80"})
+    public String instanceName;
+
+    private Path path;
+    private Instance instance;
+    /** the instance in the binary format */
+    private Path binaryPath;
+    private ResourceOrder resourceOrder;
+    private JobNumbers jobNumbers;
+    private Schedule schedule;
+
+    @Setup
+    public void setup() throws IOException {
+        path = Paths.get("instances", instanceName);
+        instance = Instance.fromFile(path);
+        binaryPath = Files.createTempFile(instanceName, ".bin");
+        binaryPath.toFile().deleteOnExit();
+        instance.toBinaryFile(binaryPath);
+        GluttonousSolver solver = new GluttonousSolver(GluttonousSolver.PRIORITY_SPT);
+        resourceOrder = new ResourceOrder(solver.solve(instance, Long.MAX_VALUE).schedule);
+        jobNumbers = new CompactResourceOrder(resourceOrder).toJobNumbers();
+        schedule = resourceOrder.toSchedule();
+    }
+
+    @Benchmark
+    public Instance instanceFromFile() throws IOException {
+        return Instance.fromFile(path);
+    }
+
+    @Benchmark
+    public Instance instanceFromBinaryFile() throws IOException {
+        return Instance.fromFile(binaryPath);
+    }
+
+    @Benchmark
+    public Schedule jobNumbersToSchedule() {
+        return jobNumbers.toSchedule();
+    }
+
+    @Benchmark
+    public Schedule resourceOrderToSchedule() {
+        return resourceOrder.toSchedule();
+    }
+
+    @Benchmark
+    public List<Task> criticalPath() {
+        return schedule.criticalPath();
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return schedule.isValid();
+    }
+
+    @Benchmark
+    public Result gluttonousSpt() {
+        return new GluttonousSolver(GluttonousSolver.PRIORITY_SPT).solve(instance, Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public Result gifflerThompsonMwkr() {
+        return new GluttonousSolver(DispatchRule.MWKR, true).solve(instance, Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,117 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.encodings.CompactResourceOrder;
+import jobshop.encodings.ResourceOrder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks of one neighborhood scan of the local search solvers, from the solution of the SPT gluttonous solver :
+ * identification of the critical blocks, generation of the swaps, estimation and exact evaluation of the neighbors,
+ * and of whole descents. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NeighborhoodBenchmark {
+
+    @Param({"ft06", "ft10", "la20", "la40", "ta71", "ta75", "ta80"})
+    public String instanceName;
+
+    private CompactResourceOrder order;
+    private DescentSolver firstImprovement;
+    private DescentSolver steepest;
+    private Neighborhood n5;
+    private Neighborhood n6;
+    private Neighborhood n7;
+    private MoveEvaluator evaluator;
+    private MoveEvaluator neighborEvaluator;
+
+    @Setup
+    public void setup() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances", instanceName));
+        GluttonousSolver solver = new GluttonousSolver(GluttonousSolver.PRIORITY_SPT);
+        order = new CompactResourceOrder(new ResourceOrder(solver.solve(instance, Long.MAX_VALUE).schedule));
+        firstImprovement = new DescentSolver(solver, DescentSolver.FIRST_IMPROVEMENT);
+        steepest = new DescentSolver(solver, DescentSolver.STEEPEST);
+        n5 = new Neighborhood(instance, Neighborhood.N5);
+        n6 = new Neighborhood(instance, Neighborhood.N6);
+        n7 = new Neighborhood(instance, Neighborhood.N7);
+        evaluator = new MoveEvaluator(instance);
+        neighborEvaluator = new MoveEvaluator(instance);
+    }
+
+    /** Scan of DescentSolver.search : neighbors by increasing estimate, until the first improving one. */
+    @Benchmark
+    public int descentScan() {
+        int makespan = evaluator.load(order);
+        int numMoves = n5.generate(evaluator);
+        n5.sortByEstimate();
+        for(int i = 0; i < numMoves; i++) {
+            int k = n5.move(i);
+            if(n5.estimates[k] >= makespan)
+                break;
+            n5.apply(k, order);
+            int neighborMakespan = neighborEvaluator.evaluate(order);
+            n5.undo(k, order);
+            if(neighborMakespan >= 0 && neighborMakespan < makespan)
+                return neighborMakespan;
+        }
+        return makespan;
+    }
+
+    /** Scan of TabooSolver.search : every neighbor whose estimate beats the best neighbor so far is evaluated. */
+    @Benchmark
+    public int tabooScan() {
+        evaluator.load(order);
+        int numMoves = n5.generate(evaluator);
+        int best = Integer.MAX_VALUE;
+        for(int k = 0; k < numMoves; k++) {
+            if(n5.estimates[k] >= best)
+                continue;
+            n5.apply(k, order);
+            int makespan = neighborEvaluator.evaluate(order);
+            n5.undo(k, order);
+            if(makespan >= 0)
+                best = Math.min(best, makespan);
+        }
+        return best;
+    }
+
+    /** Whole descents from the solution, in each mode. */
+    @Benchmark
+    public CompactResourceOrder firstImprovementDescent() {
+        return firstImprovement.search(order, 0, Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public CompactResourceOrder steepestDescent() {
+        return steepest.search(order, 0, Long.MAX_VALUE);
+    }
+
+    /** Generation of the insertion neighborhoods, with their feasibility filter and their estimates. */
+    @Benchmark
+    public int n6Moves() {
+        evaluator.load(order);
+        return n6.generate(evaluator);
+    }
+
+    @Benchmark
+    public int n7Moves() {
+        evaluator.load(order);
+        return n7.generate(evaluator);
+    }
+
+    /** Swaps of every neighbor are estimated, without exact evaluation. */
+    @Benchmark
+    public int estimatesOnly() {
+        evaluator.load(order);
+        int numMoves = n5.generate(evaluator);
+        int best = Integer.MAX_VALUE;
+        for(int k = 0; k < numMoves; k++)
+            best = Math.min(best, n5.estimates[k]);
+        return best;
+    }
+}
@@ -1,11 +1,8 @@
 package jobshop;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Iterator;
-import java.util.Scanner;
-import java.util.stream.Collectors;
+import java.util.Arrays;
 
 public class Instance {
 
@@ -21,6 +18,16 @@ public class Instance {
     final int[][] durations;
     final int[][] machines;
 
+    /** taskOfMachine[job][machine] is the index of the task of the job that uses the machine, -1 if none */
+    private int[][] taskOfMachine;
+    /** flatDurations[job * numTasks + task] is the duration of the task */
+    private int[] flatDurations;
+    /** flatMachines[job * numTasks + task] is the machine of the task */
+    private int[] flatMachines;
+    /** remainingWork[job * (numTasks + 1) + task] is the sum of the durations of the tasks of the job from the given one
+     * to the last one (0 for task = numTasks) */
+    private int[] remainingWork;
+
     public int duration(int job, int task) {
         return durations[job][task];
     }
@@ -28,13 +35,31 @@ public class Instance {
         return machines[job][task];
     }
 
+    /** Duration of a task identified by job * numTasks + task. */
+    public int duration(int id) {
+        return flatDurations[id];
+    }
+    /** Machine of a task identified by job * numTasks + task. */
+    public int machine(int id) {
+        return flatMachines[id];
+    }
+
+    /** Total duration of the tasks of the job that start with the given one (included). */
+    public int remainingWork(int job, int task) {
+        return remainingWork[job * (numTasks + 1) + task];
+    }
+
+    /** Total duration of the tasks of the job. */
+    public int totalWork(int job) {
+        return remainingWork(job, 0);
+    }
+
     /** among the tasks of the given job, returns the task index that uses the given machine. */
     public int task_with_machine(int job, int wanted_machine) {
-        for(int task = 0 ; task < numTasks ; task++) {
-            if(machine(job, task) == wanted_machine)
-                return task;
-        }
-        throw new RuntimeException("No task targeting machine "+wanted_machine+" on job "+job);
+        int task = taskOfMachine[job][wanted_machine];
+        if(task == -1)
+            throw new RuntimeException("No task targeting machine "+wanted_machine+" on job "+job);
+        return task;
     }
 
     Instance(int numJobs, int numTasks) {
@@ -46,25 +71,37 @@ public class Instance {
         machines = new int[numJobs][numTasks];
     }
 
-    public static Instance fromFile(Path path) throws IOException {
-        Iterator<String> lines = Files.readAllLines(path).stream()
-                .filter(l -> !l.startsWith("#"))
-                .collect(Collectors.toList())
-                .iterator();
-
-        Scanner header = new Scanner(lines.next());
-        int num_jobs = header.nextInt();
-        int num_tasks = header.nextInt();
-        Instance pb = new Instance(num_jobs, num_tasks);
-
-        for(int job = 0 ; job<num_jobs ; job++) {
-            Scanner line = new Scanner(lines.next());
-            for(int task = 0 ; task < num_tasks ; task++) {
-                pb.machines[job][task] = line.nextInt();
-                pb.durations[job][task] = line.nextInt();
+    /** Builds the lookup tables from durations and machines. Must be called once both are filled. */
+    void buildIndex() {
+        taskOfMachine = new int[numJobs][numMachines];
+        flatDurations = new int[numJobs * numTasks];
+        flatMachines = new int[numJobs * numTasks];
+        remainingWork = new int[numJobs * (numTasks + 1)];
+        for(int job = 0 ; job < numJobs ; job++) {
+            Arrays.fill(taskOfMachine[job], -1);
+            for(int task = 0 ; task < numTasks ; task++) {
+                int machine = machines[job][task];
+                if(machine < 0 || machine >= numMachines)
+                    throw new RuntimeException("Task ("+job+","+task+") targets an unknown machine "+machine);
+                if(taskOfMachine[job][machine] == -1)
+                    taskOfMachine[job][machine] = task;
+                flatDurations[job * numTasks + task] = durations[job][task];
+                flatMachines[job * numTasks + task] = machine;
+            }
+            for(int task = numTasks - 1 ; task >= 0 ; task--) {
+                remainingWork[job * (numTasks + 1) + task] = remainingWork[job * (numTasks + 1) + task + 1] + durations[job][task];
             }
         }
+    }
+
+    /** Loads an instance from a file in the text format of the instances/ directory or in the binary format written by
+     * toBinaryFile, the format being detected automatically. */
+    public static Instance fromFile(Path path) throws IOException {
+        return InstanceParser.read(path);
+    }
 
-        return pb;
+    /** Writes this instance in a compact binary format, much faster to load than the text format. */
+    public void toBinaryFile(Path path) throws IOException {
+        InstanceParser.writeBinary(this, path);
     }
 }
@@ -0,0 +1,153 @@
+package jobshop;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/** Reads and writes instances without building any intermediate String.
+ *
+ * Two formats are supported :
+ *  - the text format of the instances/ directory : a header line "numJobs numTasks" followed by one line per job
+ *    listing the (machine duration) pairs of its tasks. Everything after a '#' is a comment, up to the end of the line.
+ *  - a binary format : the magic number MAGIC, the version, numJobs, numTasks, then the machines and the durations
+ *    of the tasks, job by job, all as big endian ints.
+ * Files are memory mapped and the format is detected from their first bytes.
+ */
+class InstanceParser {
+
+    /** "JSHP" in ASCII */
+    static final int MAGIC = 0x4A534850;
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES;
+
+    static Instance read(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if(buffer.remaining() >= HEADER_BYTES && buffer.getInt(0) == MAGIC) {
+                return readBinary(buffer, path);
+            }
+            return new TextTokenizer(buffer, path).parse();
+        }
+    }
+
+    static void writeBinary(Instance instance, Path path) throws IOException {
+        int size = instance.numJobs * instance.numTasks;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 2 * size * Integer.BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(instance.numJobs).putInt(instance.numTasks);
+        IntBuffer ints = buffer.asIntBuffer();
+        for(int job = 0 ; job < instance.numJobs ; job++)
+            ints.put(instance.machines[job]);
+        for(int job = 0 ; job < instance.numJobs ; job++)
+            ints.put(instance.durations[job]);
+        buffer.position(0);
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while(buffer.hasRemaining())
+                channel.write(buffer);
+        }
+    }
+
+    private static Instance readBinary(ByteBuffer buffer, Path path) throws IOException {
+        int version = buffer.getInt(Integer.BYTES);
+        if(version != VERSION)
+            throw new IOException(path + ": unsupported binary instance version " + version);
+        int numJobs = buffer.getInt(2 * Integer.BYTES);
+        int numTasks = buffer.getInt(3 * Integer.BYTES);
+        if(numJobs <= 0 || numTasks <= 0 || buffer.capacity() != HEADER_BYTES + 2L * numJobs * numTasks * Integer.BYTES)
+            throw new IOException(path + ": truncated or corrupted binary instance");
+        buffer.position(HEADER_BYTES);
+        IntBuffer ints = buffer.asIntBuffer();
+        Instance pb = new Instance(numJobs, numTasks);
+        for(int job = 0 ; job < numJobs ; job++)
+            ints.get(pb.machines[job]);
+        for(int job = 0 ; job < numJobs ; job++)
+            ints.get(pb.durations[job]);
+        pb.buildIndex();
+        return pb;
+    }
+
+    /** Reads the integers of the text format directly from the bytes of the file. */
+    private static class TextTokenizer {
+        private final ByteBuffer buffer;
+        private final Path path;
+        private int line = 1;
+
+        TextTokenizer(ByteBuffer buffer, Path path) {
+            this.buffer = buffer;
+            this.path = path;
+        }
+
+        Instance parse() throws IOException {
+            int numJobs = nextInt();
+            int numTasks = nextInt();
+            skipLine();
+            Instance pb = new Instance(numJobs, numTasks);
+            for(int job = 0 ; job < numJobs ; job++) {
+                for(int task = 0 ; task < numTasks ; task++) {
+                    pb.machines[job][task] = nextInt();
+                    pb.durations[job][task] = nextInt();
+                }
+                // as with the header, anything after the last pair of the job is ignored
+                skipLine();
+            }
+            pb.buildIndex();
+            return pb;
+        }
+
+        /** Next integer of the file, skipping blanks, line breaks and comments. */
+        private int nextInt() throws IOException {
+            while(buffer.hasRemaining()) {
+                byte b = buffer.get(buffer.position());
+                if(b == '#') {
+                    skipLine();
+                } else if(b == '\n') {
+                    line++;
+                    buffer.get();
+                } else if(b == ' ' || b == '\t' || b == '\r') {
+                    buffer.get();
+                } else {
+                    break;
+                }
+            }
+            if(!buffer.hasRemaining())
+                throw new IOException(path + ": unexpected end of file at line " + line);
+
+            boolean negative = buffer.get(buffer.position()) == '-';
+            if(negative)
+                buffer.get();
+            long value = 0;
+            int digits = 0;
+            while(buffer.hasRemaining()) {
+                byte b = buffer.get(buffer.position());
+                if(b < '0' || b > '9')
+                    break;
+                value = value * 10 + (b - '0');
+                if(value > Integer.MAX_VALUE)
+                    throw new IOException(path + ": integer too large at line " + line);
+                buffer.get();
+                digits++;
+            }
+            if(digits == 0 || (buffer.hasRemaining() && !isSeparator(buffer.get(buffer.position()))))
+                throw new IOException(path + ": integer expected at line " + line);
+            return (int) (negative ? -value : value);
+        }
+
+        /** Moves after the next line break. */
+        private void skipLine() {
+            while(buffer.hasRemaining()) {
+                if(buffer.get() == '\n') {
+                    line++;
+                    return;
+                }
+            }
+        }
+
+        private static boolean isSeparator(byte b) {
+            return b == ' ' || b == '\t' || b == '\r' || b == '\n' || b == '#';
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package jobshop;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** The instances of a directory, loaded on first use and kept in a cache shared by all the runs.
+ *
+ * The cache is bounded by the total number of tasks of the instances it contains : when it is full, the least
+ * recently used instances are evicted (and parsed again if they are needed later).
+ * All methods are thread safe.
+ */
+public class InstanceRepository {
+
+    /** Default capacity of the cache, in number of tasks (about 10 MB of durations and machines) */
+    public static final int DEFAULT_CAPACITY = 1_000_000;
+
+    private final Path directory;
+    private final int capacity;
+    /** cached instances, the least recently used one first */
+    private final LinkedHashMap<String, Instance> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private int cachedTasks = 0;
+
+    public InstanceRepository(Path directory, int capacity) {
+        this.directory = directory;
+        this.capacity = capacity;
+    }
+
+    /** Repository of the instances/ directory. */
+    public InstanceRepository() {
+        this(Paths.get("instances"), DEFAULT_CAPACITY);
+    }
+
+    /** Names of all the instances of the directory, in alphabetical order. */
+    public List<String> names() throws IOException {
+        List<String> names = new ArrayList<>();
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for(Path file : files) {
+                if(isInstance(file))
+                    names.add(file.getFileName().toString());
+            }
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    /** Names of the instances matching the given glob pattern (e.g. "ta*" or "la[0-2]?"), in alphabetical order. */
+    public List<String> select(String pattern) throws IOException {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        List<String> selected = new ArrayList<>();
+        for(String name : names()) {
+            if(matcher.matches(Paths.get(name)))
+                selected.add(name);
+        }
+        return selected;
+    }
+
+    public boolean contains(String name) {
+        return isInstance(directory.resolve(name));
+    }
+
+    /** Returns the instance with the given name, parsing it if it is not in the cache. */
+    public synchronized Instance get(String name) throws IOException {
+        Instance instance = cache.get(name);
+        if(instance == null) {
+            instance = Instance.fromFile(directory.resolve(name));
+            cache.put(name, instance);
+            cachedTasks += size(instance);
+            evict();
+        }
+        return instance;
+    }
+
+    /** Removes the least recently used instances until the cache fits in its capacity, keeping at least the most
+     * recently used one. */
+    private void evict() {
+        Iterator<Map.Entry<String, Instance>> it = cache.entrySet().iterator();
+        while(cachedTasks > capacity && cache.size() > 1) {
+            cachedTasks -= size(it.next().getValue());
+            it.remove();
+        }
+    }
+
+    private static int size(Instance instance) {
+        return instance.numJobs * instance.numTasks;
+    }
+
+    /** Instances are the regular files of the directory, except the documentation and the best known results. */
+    private boolean isInstance(Path file) {
+        String name = file.getFileName().toString();
+        return Files.isRegularFile(file) && !name.startsWith(".") && !name.equals("README.md")
+                && !file.getFileName().equals(BestKnownResult.FILE.getFileName());
+    }
+}
@@ -1,11 +1,17 @@
 package jobshop;
 
+import java.io.IOException;
 import java.io.PrintStream;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.DoubleStream;
 
 
 import jobshop.solvers.*;
@@ -17,7 +23,11 @@ import net.sourceforge.argparse4j.inf.Namespace;
 
 public class Main {
 
-    /** All solvers available in this program */
+    /** Number of threads of the parallel solvers : the cores are shared by the runs executed in parallel */
+    private static int threadsPerRun = Runtime.getRuntime().availableProcessors();
+
+    /** All solvers available in this program.
+     * Parallel solvers are built at each run, with threadsPerRun threads. */
     private static HashMap<String, Solver> solvers;
     static {
         solvers = new HashMap<>();
@@ -28,10 +38,19 @@ public class Main {
         solvers.put("gluttonous_lpt", new GluttonousSolver(GluttonousSolver.PRIORITY_LPT));
         solvers.put("gluttonous_srpt", new GluttonousSolver(GluttonousSolver.PRIORITY_SRPT));
         solvers.put("gluttonous_lrpt", new GluttonousSolver(GluttonousSolver.PRIORITY_LRPT));
+        solvers.put("gluttonous_mwkr", new GluttonousSolver(DispatchRule.MWKR, false));
+        solvers.put("gluttonous_fifo", new GluttonousSolver(DispatchRule.FIFO, false));
+        solvers.put("gt_spt", new GluttonousSolver(DispatchRule.SPT, true));
+        solvers.put("gt_mwkr", new GluttonousSolver(DispatchRule.MWKR, true));
+        solvers.put("gt_spt_mwkr", new GluttonousSolver(DispatchRule.weighted(new int[] {1, 1}, DispatchRule.SPT, DispatchRule.MWKR), true));
         solvers.put("descent_spt", new DescentSolver(GluttonousSolver.PRIORITY_SPT));
         solvers.put("descent_lpt", new DescentSolver(GluttonousSolver.PRIORITY_LPT));
         solvers.put("descent_srpt", new DescentSolver(GluttonousSolver.PRIORITY_SRPT));
         solvers.put("descent_lrpt", new DescentSolver(GluttonousSolver.PRIORITY_LRPT));
+        solvers.put("descent_n6_spt", new DescentSolver(new GluttonousSolver(GluttonousSolver.PRIORITY_SPT), DescentSolver.FIRST_IMPROVEMENT, Neighborhood.N6));
+        solvers.put("descent_n7_spt", new DescentSolver(new GluttonousSolver(GluttonousSolver.PRIORITY_SPT), DescentSolver.FIRST_IMPROVEMENT, Neighborhood.N7));
+        solvers.put("descent_steepest_spt", new DescentSolver(new GluttonousSolver(GluttonousSolver.PRIORITY_SPT), DescentSolver.STEEPEST));
+        solvers.put("descent_randomized_spt", new DescentSolver(new GluttonousSolver(GluttonousSolver.PRIORITY_SPT), DescentSolver.RANDOMIZED));
         solvers.put("taboo_fast_spt", new TabooSolver(10, 5, GluttonousSolver.PRIORITY_SPT));
         solvers.put("taboo_fast_lpt", new TabooSolver(10, 5, GluttonousSolver.PRIORITY_LPT));
         solvers.put("taboo_fast_srpt", new TabooSolver(10, 5, GluttonousSolver.PRIORITY_SRPT));
@@ -40,6 +59,37 @@ public class Main {
         solvers.put("taboo_quality_lpt", new TabooSolver(100, 100,GluttonousSolver.PRIORITY_LPT));
         solvers.put("taboo_quality_srpt", new TabooSolver(100, 100,GluttonousSolver.PRIORITY_SRPT));
         solvers.put("taboo_quality_lrpt", new TabooSolver(100, 100,GluttonousSolver.PRIORITY_LRPT));
+        solvers.put("taboo_timed_spt", new TabooSolver(TabooSolver.UNTIL_DEADLINE, 10, GluttonousSolver.PRIORITY_SPT, 500));
+        solvers.put("taboo_timed_lpt", new TabooSolver(TabooSolver.UNTIL_DEADLINE, 10, GluttonousSolver.PRIORITY_LPT, 500));
+        solvers.put("taboo_timed_srpt", new TabooSolver(TabooSolver.UNTIL_DEADLINE, 10, GluttonousSolver.PRIORITY_SRPT, 500));
+        solvers.put("taboo_timed_lrpt", new TabooSolver(TabooSolver.UNTIL_DEADLINE, 10, GluttonousSolver.PRIORITY_LRPT, 500));
+        solvers.put("taboo_timed_n6_spt", new TabooSolver(TabooSolver.UNTIL_DEADLINE, 10, new GluttonousSolver(GluttonousSolver.PRIORITY_SPT), 500, Neighborhood.N6));
+        solvers.put("taboo_timed_n7_spt", new TabooSolver(TabooSolver.UNTIL_DEADLINE, 10, new GluttonousSolver(GluttonousSolver.PRIORITY_SPT), 500, Neighborhood.N7));
+        solvers.put("taboo_parallel", (instance, deadline) ->
+                new ParallelTabooSolver(100, threadsPerRun).solve(instance, deadline));
+        solvers.put("tsab", new TSABSolver(TSABSolver.UNTIL_DEADLINE, 2500, TSABSolver.N6, GluttonousSolver.PRIORITY_SPT));
+        solvers.put("tsab_n5", new TSABSolver(TSABSolver.UNTIL_DEADLINE, 2500, TSABSolver.N5, GluttonousSolver.PRIORITY_SPT));
+        solvers.put("shifting_bottleneck", new ShiftingBottleneckSolver());
+        solvers.put("descent_sb", new DescentSolver(new ShiftingBottleneckSolver()));
+        solvers.put("taboo_timed_sb", new TabooSolver(TabooSolver.UNTIL_DEADLINE, 10, new ShiftingBottleneckSolver(), 500));
+        solvers.put("tsab_sb", new TSABSolver(TSABSolver.UNTIL_DEADLINE, 2500, TSABSolver.N6, new ShiftingBottleneckSolver()));
+        solvers.put("branch_and_bound", new BranchAndBoundSolver());
+        solvers.put("branch_and_bound_parallel", (instance, deadline) ->
+                new ParallelBranchAndBoundSolver(threadsPerRun).solve(instance, deadline));
+        solvers.put("genetic_jox", (instance, deadline) ->
+                new GeneticSolver(100, GeneticSolver.JOX, 0.1, 0, threadsPerRun).solve(instance, deadline));
+        solvers.put("genetic_gox", (instance, deadline) ->
+                new GeneticSolver(100, GeneticSolver.GOX, 0.1, 0, threadsPerRun).solve(instance, deadline));
+        solvers.put("memetic", (instance, deadline) ->
+                new GeneticSolver(30, GeneticSolver.GOX, 0.1, 100, threadsPerRun).solve(instance, deadline));
+        solvers.put("annealing", new AnnealingSolver(AnnealingSolver.GEOMETRIC, 1_000_000, new GluttonousSolver(GluttonousSolver.PRIORITY_SPT)));
+        solvers.put("annealing_linear", new AnnealingSolver(AnnealingSolver.LINEAR, 1_000_000, new GluttonousSolver(GluttonousSolver.PRIORITY_SPT)));
+        solvers.put("annealing_lundy_mees", new AnnealingSolver(AnnealingSolver.LUNDY_MEES, 1_000_000, new GluttonousSolver(GluttonousSolver.PRIORITY_SPT)));
+        solvers.put("grasp", (instance, deadline) ->
+                new GraspSolver(DispatchRule.MWKR, false, 0.5, threadsPerRun).solve(instance, deadline));
+        solvers.put("grasp_spt", (instance, deadline) ->
+                new GraspSolver(DispatchRule.SPT, false, 0.5, threadsPerRun).solve(instance, deadline));
+        solvers.put("ils", new IteratedLocalSearchSolver(5, new GluttonousSolver(GluttonousSolver.PRIORITY_SPT)));
     }
 
 
@@ -60,7 +110,17 @@ public class Main {
         parser.addArgument("--instance")
                 .nargs("+")
                 .required(true)
-                .help("Instance(s) to solve (space separated if more than one)");
+                .help("Instance(s) to solve (space separated if more than one), glob patterns such as 'ta*' select "
+                        + "all the matching instances");
+        parser.addArgument("--threads")
+                .setDefault(1)
+                .type(Integer.class)
+                .help("Number of (instance, solver, repetition) runs executed in parallel. The parallel solvers "
+                        + "share the cores between the runs : each one uses max(1, cores / THREADS) threads");
+        parser.addArgument("--repetitions")
+                .setDefault(1)
+                .type(Integer.class)
+                .help("Number of runs of each solver on each instance");
 
         Namespace ns = null;
         try {
@@ -83,80 +143,190 @@ public class Main {
                 System.exit(1);
             }
         }
-        List<String> instances = ns.<String>getList("instance");
-        for(String instanceName : instances) {
-            if(!BestKnownResult.isKnown(instanceName)) {
-                System.err.println("ERROR: instance \"" + instanceName + "\" is not avalaible.");
-                System.err.println("       available instances: " + Arrays.toString(BestKnownResult.instances));
-                System.exit(1);
+        InstanceRepository repository = new InstanceRepository();
+        List<String> instances = new ArrayList<>();
+        try {
+            for(String instanceName : ns.<String>getList("instance")) {
+                List<String> selected = isGlob(instanceName) ? repository.select(instanceName)
+                        : repository.contains(instanceName) ? Collections.singletonList(instanceName)
+                        : Collections.emptyList();
+                if(selected.isEmpty()) {
+                    System.err.println("ERROR: instance \"" + instanceName + "\" is not avalaible.");
+                    System.err.println("       available instances: " + repository.names());
+                    System.exit(1);
+                }
+                instances.addAll(selected);
             }
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
         }
 
-        float[] runtimes = new float[solversToTest.size()];
-        float[] distances = new float[solversToTest.size()];
+        int numThreads = ns.getInt("threads");
+        threadsPerRun = Math.max(1, Runtime.getRuntime().availableProcessors() / numThreads);
+        int repetitions = ns.getInt("repetitions");
 
-        for(int iteration = 0; iteration < 10; iteration++) {
-            try {
-                output.print(  "                         ");;
-                for(String s : solversToTest)
-                    output.printf("%-30s", s);
-                output.println();
-                output.print("instance size  best      ");
-                for(String s : solversToTest) {
-                    output.print("runtime makespan ecart        ");
+        try {
+            // every (instance, solver, repetition) run is submitted to the pool, each one with its own deadline.
+            // Runs fetch their instance from the repository : only the instances of the pending runs stay in memory
+            ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+            List<List<Future<Run>>> runs = new ArrayList<>();
+            // sizes and lower bounds of the instances, the quality of a run is also measured against the bounds
+            int[] numJobs = new int[instances.size()];
+            int[] numTasks = new int[instances.size()];
+            List<Future<Integer>> lowerBounds = new ArrayList<>();
+            for(int instanceId = 0; instanceId < instances.size(); instanceId++) {
+                String name = instances.get(instanceId);
+                Instance instance = repository.get(name);
+                numJobs[instanceId] = instance.numJobs;
+                numTasks[instanceId] = instance.numTasks;
+                int bestKnown = bestKnown(name);
+                // the two job bound is quadratic in the number of jobs : it is computed in the pool, by a task submitted
+                // before the runs of the instance, instead of delaying the start of all the runs
+                Future<Integer> lowerBound = executor.submit(() -> new LowerBounds(repository.get(name), true).value());
+                lowerBounds.add(lowerBound);
+                List<Future<Run>> instanceRuns = new ArrayList<>();
+                for(int solverId = 0 ; solverId < solversToTest.size() ; solverId++) {
+                    Solver solver = solvers.get(solversToTest.get(solverId));
+                    for(int repetition = 0; repetition < repetitions; repetition++) {
+                        instanceRuns.add(executor.submit(() -> Run.execute(solver, repository.get(name), bestKnown, lowerBound, solveTimeMs)));
+                    }
                 }
-                output.println();
+                runs.add(instanceRuns);
+            }
+            executor.shutdown();
 
+            output.print(  "                               ");
+            for(String s : solversToTest)
+                output.printf("%-36s", s);
+            output.println();
+            output.print("instance size  best  bound      ");
+            for(String s : solversToTest) {
+                output.print("runtime makespan ecart   gap        ");
+            }
+            output.println();
 
-                for(String instanceName : instances) {
-                    int bestKnown = BestKnownResult.of(instanceName);
+            // runs of each solver, over all instances
+            List<List<Run>> solverRuns = new ArrayList<>();
+            for(int solverId = 0 ; solverId < solversToTest.size() ; solverId++) {
+                solverRuns.add(new ArrayList<>());
+            }
+            for(int instanceId = 0; instanceId < instances.size(); instanceId++) {
+                int bestKnown = bestKnown(instances.get(instanceId));
+                output.printf("%-8s %-5s %4s  %5d      ", instances.get(instanceId), numJobs[instanceId] +"x"+numTasks[instanceId],
+                        bestKnown < 0 ? "-" : Integer.toString(bestKnown), lowerBounds.get(instanceId).get());
+                for(int solverId = 0 ; solverId < solversToTest.size() ; solverId++) {
+                    // mean over the repetitions of the solver on this instance
+                    float runtime = 0, makespan = 0, dist = 0, gap = 0;
+                    for(int repetition = 0; repetition < repetitions; repetition++) {
+                        Run run = runs.get(instanceId).get(solverId * repetitions + repetition).get();
+                        if(!run.validation.isValid()) {
+                            System.err.println("ERROR: solver returned an invalid schedule");
+                            System.err.println(run.validation);
+                            System.exit(1);
+                        }
+                        solverRuns.get(solverId).add(run);
+                        runtime += (float) run.runtime / repetitions;
+                        makespan += (float) run.makespan / repetitions;
+                        dist += run.dist / repetitions;
+                        gap += run.gap / repetitions;
+                    }
+                    if(bestKnown < 0)
+                        output.printf("%7.0f %8.0f %5s %5.1f        ", runtime, makespan, "-", gap);
+                    else
+                        output.printf("%7.0f %8.0f %5.1f %5.1f        ", runtime, makespan, dist, gap);
+                    output.flush();
+                }
+                output.println();
+            }
 
+            output.printf("%-8s %-5s %4s  %5s      ", "AVG", "-", "-", "-");
+            for(int solverId = 0 ; solverId < solversToTest.size() ; solverId++) {
+                output.printf("%7.1f %8s %5.1f %5.1f        ", Run.mean(solverRuns.get(solverId), r -> r.runtime), "-",
+                        Run.mean(solverRuns.get(solverId), r -> r.dist), Run.mean(solverRuns.get(solverId), r -> r.gap));
+            }
+            output.println();
 
-                    Path path = Paths.get("instances/", instanceName);
-                    Instance instance = Instance.fromFile(path);
+            if(repetitions > 1 || instances.size() > 1) {
+                output.println();
+                output.printf("%-30s %-29s %-29s%n", "solver", "runtime (mean min stddev)", "ecart (mean min stddev)");
+                for(int solverId = 0 ; solverId < solversToTest.size() ; solverId++) {
+                    List<Run> all = solverRuns.get(solverId);
+                    output.printf("%-30s %9.1f %8.1f %8.1f   %9.1f %8.1f %8.1f%n", solversToTest.get(solverId),
+                            Run.mean(all, r -> r.runtime), Run.min(all, r -> r.runtime), Run.stddev(all, r -> r.runtime),
+                            Run.mean(all, r -> r.dist), Run.min(all, r -> r.dist), Run.stddev(all, r -> r.dist));
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
 
-                    output.printf("%-8s %-5s %4d      ",instanceName, instance.numJobs +"x"+instance.numTasks, bestKnown);
+    /** Whether the given instance name is a glob pattern selecting several instances. */
+    private static boolean isGlob(String name) {
+        return name.chars().anyMatch(c -> "*?[{".indexOf(c) >= 0);
+    }
 
-                    for(int solverId = 0 ; solverId < solversToTest.size() ; solverId++) {
-                        String solverName = solversToTest.get(solverId);
-                        Solver solver = solvers.get(solverName);
-                        long start = System.currentTimeMillis();
-                        long deadline = System.currentTimeMillis() + solveTimeMs;
-                        Result result = solver.solve(instance, deadline);
-                        long runtime = System.currentTimeMillis() - start;
+    /** Best known makespan of the instance, -1 if unknown. */
+    private static int bestKnown(String instanceName) {
+        return BestKnownResult.isKnown(instanceName) ? BestKnownResult.of(instanceName) : -1;
+    }
 
-                        if(!result.schedule.isValid()) {
-                            System.err.println("ERROR: solver returned an invalid schedule");
-                            System.exit(1);
-                        }
+    /** Outcome of a single run of a solver on an instance. */
+    private static class Run {
+        /** number of violated constraints printed when a solver returns an invalid schedule */
+        static final int MAX_REPORTED_VIOLATIONS = 5;
 
-                        assert result.schedule.isValid();
-                        int makespan = result.schedule.makespan();
-                        float dist = 100f * (makespan - bestKnown) / (float) bestKnown;
-                        runtimes[solverId] += (float) runtime / (float) instances.size();
-                        distances[solverId] += dist / (float) instances.size();
+        final long runtime;
+        final int makespan;
+        /** distance to the best known result, in percents */
+        final float dist;
+        /** distance to the best lower bound known by Main or by the solver, in percents */
+        final float gap;
+        final ScheduleValidator.Report validation;
 
-                        output.printf("%7d %8s %5.1f        ", runtime, makespan, dist);
-                        output.flush();
-                    }
-                    output.println();
+        Run(long runtime, int makespan, float dist, float gap, ScheduleValidator.Report validation) {
+            this.runtime = runtime;
+            this.makespan = makespan;
+            this.dist = dist;
+            this.gap = gap;
+            this.validation = validation;
+        }
 
-                }
+        /** The lower bound of the instance is computed by a task submitted before the run : when the solver returns,
+         * this task is running or done. */
+        static Run execute(Solver solver, Instance instance, int bestKnown, Future<Integer> lowerBound, long solveTimeMs)
+                throws InterruptedException, ExecutionException {
+            long start = System.currentTimeMillis();
+            long deadline = System.currentTimeMillis() + solveTimeMs;
+            Result result = solver.solve(instance, deadline);
+            long runtime = System.currentTimeMillis() - start;
 
+            int makespan = result.schedule.makespan();
+            // no distance when the best result of the instance is unknown
+            float dist = bestKnown < 0 ? Float.NaN : 100f * (makespan - bestKnown) / (float) bestKnown;
+            int bound = Math.max(lowerBound.get(), result.lowerBound);
+            float gap = bound == 0 ? Float.NaN : 100f * (makespan - bound) / (float) bound;
+            return new Run(runtime, makespan, dist, gap, result.schedule.validate(MAX_REPORTED_VIOLATIONS));
+        }
 
-                output.printf("%-8s %-5s %4s      ", "AVG", "-", "-");
-                for(int solverId = 0 ; solverId < solversToTest.size() ; solverId++) {
-                    output.printf("%7.1f %8s %5.1f        ", runtimes[solverId], "-", distances[solverId]);
-                    runtimes[solverId] = 0;
-                    distances[solverId] = 0;
-                }
+        /** statistics ignore the runs for which the value is undefined (NaN) */
+        static double mean(List<Run> runs, ToDoubleFunction<Run> value) {
+            return values(runs, value).average().orElse(Double.NaN);
+        }
 
+        static double min(List<Run> runs, ToDoubleFunction<Run> value) {
+            return values(runs, value).min().orElse(Double.NaN);
+        }
 
+        static double stddev(List<Run> runs, ToDoubleFunction<Run> value) {
+            double mean = mean(runs, value);
+            return Math.sqrt(values(runs, value).map(v -> Math.pow(v - mean, 2)).average().orElse(Double.NaN));
+        }
 
-            } catch (Exception e) {
-                e.printStackTrace();
-                System.exit(1);
-            }
+        private static DoubleStream values(List<Run> runs, ToDoubleFunction<Run> value) {
+            return runs.stream().mapToDouble(value).filter(v -> !Double.isNaN(v));
         }
     }
 }
@@ -5,9 +5,15 @@ import java.util.Optional;
 public class Result {
 
     public Result(Instance instance, Schedule schedule, ExitCause cause) {
+        this(instance, schedule, cause, cause == ExitCause.ProvedOptimal ? schedule.makespan() : 0);
+    }
+
+    /** Result of a solver that also proved a lower bound of the makespan of the instance. */
+    public Result(Instance instance, Schedule schedule, ExitCause cause, int lowerBound) {
         this.instance = instance;
         this.schedule = schedule;
         this.cause = cause;
+        this.lowerBound = lowerBound;
     }
 
     public enum ExitCause {
@@ -17,6 +23,8 @@ public class Result {
     public final Instance instance;
     public final Schedule schedule;
     public final ExitCause cause;
+    /** Lower bound of the makespan of any solution of the instance, known by the solver (0 if it knows none) */
+    public final int lowerBound;
 
 
 }
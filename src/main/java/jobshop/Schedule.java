@@ -11,6 +11,9 @@ public class Schedule {
     // start times of each job and task
     // times[j][i] is the start time of task (j,i) : i^th task of the j^th job
     final int[][] times;
+    // criticalPredecessors[j * numTasks + i] is the task (with the same numbering) whose end time is the start
+    // time of task (j,i), on its job or on its machine, -1 if it starts at 0. null if unknown.
+    private final int[] criticalPredecessors;
 
     public Schedule(Instance pb, int[][] times) {
         this.pb = pb;
@@ -18,6 +21,23 @@ public class Schedule {
         for(int j = 0 ; j < pb.numJobs ; j++) {
             this.times[j] = Arrays.copyOf(times[j], pb.numTasks);
         }
+        this.criticalPredecessors = null;
+    }
+
+    /** Builds a schedule from start times indexed by job * numTasks + task. */
+    public Schedule(Instance pb, int[] startTimes) {
+        this(pb, startTimes, null);
+    }
+
+    /** Builds a schedule from start times and critical predecessors (see criticalPathIds()),
+     * both indexed by job * numTasks + task. The critical predecessors are not copied. */
+    public Schedule(Instance pb, int[] startTimes, int[] criticalPredecessors) {
+        this.pb = pb;
+        this.times = new int[pb.numJobs][];
+        for(int j = 0 ; j < pb.numJobs ; j++) {
+            this.times[j] = Arrays.copyOfRange(startTimes, j * pb.numTasks, (j + 1) * pb.numTasks);
+        }
+        this.criticalPredecessors = criticalPredecessors;
     }
 
     public int startTime(int job, int task) {
@@ -46,7 +66,37 @@ public class Schedule {
         return true;
     }
 
+    /** Returns the tasks of a critical path, identified by job * numTasks + task, from the first to the last one.
+     * When the builder of the schedule recorded the critical predecessor of each task, the path is obtained by following
+     * them from the task ending last, in O(length of the path). */
+    public int[] criticalPathIds() {
+        if(criticalPredecessors == null) {
+            return criticalPath().stream().mapToInt(t -> t.job * pb.numTasks + t.task).toArray();
+        }
+        int makespan = makespan();
+        int last = -1;
+        for(int j = 0 ; j < pb.numJobs && last == -1 ; j++) {
+            if(startTime(j, pb.numTasks - 1) + pb.duration(j, pb.numTasks - 1) == makespan)
+                last = (j + 1) * pb.numTasks - 1;
+        }
+        int length = 0;
+        for(int id = last ; id != -1 ; id = criticalPredecessors[id])
+            length++;
+        int[] path = new int[length];
+        for(int id = last ; id != -1 ; id = criticalPredecessors[id])
+            path[--length] = id;
+        return path;
+    }
+
     public List<Task> criticalPath() {
+        if(criticalPredecessors != null) {
+            List<Task> path = new ArrayList<>();
+            for(int id : criticalPathIds())
+                path.add(new Task(id / pb.numTasks, id % pb.numTasks));
+            assert isCriticalPath(path);
+            return path;
+        }
+
         // select task with greatest end time
         Task ldd = IntStream.range(0, pb.numJobs)
                 .mapToObj(j -> new Task(j, pb.numTasks - 1))
@@ -94,35 +144,14 @@ public class Schedule {
         return path;
     }
 
-        /** Returns true if this schedule is valid (no constraint is violated) */
+    /** Returns true if this schedule is valid (no constraint is violated) */
     public boolean isValid() {
-        for(int j = 0 ; j<pb.numJobs ; j++) {
-            for(int t = 1 ; t<pb.numTasks ; t++) {
-                if(startTime(j, t-1) + pb.duration(j, t-1) > startTime(j, t))
-                    return false;
-            }
-            for(int t = 0 ; t<pb.numTasks ; t++) {
-                if(startTime(j, t) < 0)
-                    return false;
-            }
-        }
-
-        for (int machine = 0 ; machine < pb.numMachines ; machine++) {
-            for(int j1=0 ; j1<pb.numJobs ; j1++) {
-                int t1 = pb.task_with_machine(j1, machine);
-                for(int j2=j1+1 ; j2<pb.numJobs ; j2++) {
-                    int t2 = pb.task_with_machine(j2, machine);
-
-                    boolean t1_first = startTime(j1, t1) + pb.duration(j1, t1) <= startTime(j2, t2);
-                    boolean t2_first = startTime(j2, t2) + pb.duration(j2, t2) <= startTime(j1, t1);
-
-                    if(!t1_first && !t2_first)
-                        return false;
-                }
-            }
-        }
+        return new ScheduleValidator().validate(this).isValid();
+    }
 
-        return true;
+    /** Returns the first violated constraints of this schedule, at most maxViolations of them. */
+    public ScheduleValidator.Report validate(int maxViolations) {
+        return new ScheduleValidator(maxViolations, false).validate(this);
     }
 
     public int makespan() {
@@ -134,6 +163,12 @@ public class Schedule {
     }
 
     public Schedule copy() {
+        if(criticalPredecessors != null) {
+            int[] startTimes = new int[pb.numJobs * pb.numTasks];
+            for(int j = 0 ; j < pb.numJobs ; j++)
+                System.arraycopy(times[j], 0, startTimes, j * pb.numTasks, pb.numTasks);
+            return new Schedule(this.pb, startTimes, this.criticalPredecessors);
+        }
         return new Schedule(this.pb, this.times);
     }
 
@@ -0,0 +1,151 @@
+package jobshop;
+
+import jobshop.encodings.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/** Checks that a schedule respects the constraints of its instance.
+ *
+ * Instead of checking every pair of tasks of a machine, the tasks of each machine are sorted by start time and only
+ * consecutive ones are compared, which takes O(numMachines * numJobs * log(numJobs)).
+ * The machines are independent, they can be checked in parallel.
+ */
+public class ScheduleValidator {
+
+    /** A constraint violated by a schedule. */
+    public static class Violation {
+        public enum Kind {
+            /** the task starts before time 0 */
+            NEGATIVE_START,
+            /** the second task starts before the end of the first one, which precedes it in its job */
+            JOB_PRECEDENCE,
+            /** the two tasks are executed at the same time on the same machine */
+            MACHINE_OVERLAP
+        }
+
+        public final Kind kind;
+        public final Task first;
+        /** null for NEGATIVE_START */
+        public final Task second;
+
+        Violation(Kind kind, Task first, Task second) {
+            this.kind = kind;
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public String toString() {
+            switch(kind) {
+                case NEGATIVE_START:
+                    return "task " + first + " starts before 0";
+                case JOB_PRECEDENCE:
+                    return "task " + second + " starts before the end of its predecessor " + first;
+                default:
+                    return "tasks " + first + " and " + second + " overlap on the same machine";
+            }
+        }
+    }
+
+    /** Outcome of a validation : the first violations found (jobs first, then machines in increasing order). */
+    public static class Report {
+        public final List<Violation> violations;
+
+        Report(List<Violation> violations) {
+            this.violations = Collections.unmodifiableList(violations);
+        }
+
+        public boolean isValid() {
+            return violations.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            if(isValid())
+                return "valid schedule";
+            return violations.stream().map(Violation::toString).collect(Collectors.joining("\n"));
+        }
+    }
+
+    private static final long JOB_MASK = (1L << 31) - 1;
+
+    /** Maximal number of violations reported */
+    private final int maxViolations;
+    /** Whether the machines are checked in parallel */
+    private final boolean parallel;
+
+    public ScheduleValidator(int maxViolations, boolean parallel) {
+        if(maxViolations < 1)
+            throw new RuntimeException("At least one violation must be reported");
+        this.maxViolations = maxViolations;
+        this.parallel = parallel;
+    }
+
+    /** Sequential validator stopping at the first violation. */
+    public ScheduleValidator() {
+        this(1, false);
+    }
+
+    public Report validate(Schedule schedule) {
+        Instance pb = schedule.pb;
+        List<Violation> violations = new ArrayList<>();
+        for(int j = 0 ; j < pb.numJobs && violations.size() < maxViolations ; j++) {
+            for(int t = 0 ; t < pb.numTasks && violations.size() < maxViolations ; t++) {
+                if(schedule.startTime(j, t) < 0)
+                    violations.add(new Violation(Violation.Kind.NEGATIVE_START, new Task(j, t), null));
+                else if(t > 0 && schedule.startTime(j, t-1) + pb.duration(j, t-1) > schedule.startTime(j, t))
+                    violations.add(new Violation(Violation.Kind.JOB_PRECEDENCE, new Task(j, t-1), new Task(j, t)));
+            }
+        }
+        if(violations.size() >= maxViolations)
+            return new Report(violations);
+
+        int remaining = maxViolations - violations.size();
+        if(parallel) {
+            List<List<Violation>> perMachine = IntStream.range(0, pb.numMachines).parallel()
+                    .mapToObj(m -> checkMachine(schedule, m, remaining))
+                    .collect(Collectors.toList());
+            for(List<Violation> machineViolations : perMachine) {
+                for(Violation v : machineViolations) {
+                    if(violations.size() < maxViolations)
+                        violations.add(v);
+                }
+            }
+        } else {
+            for(int m = 0 ; m < pb.numMachines && violations.size() < maxViolations ; m++) {
+                violations.addAll(checkMachine(schedule, m, maxViolations - violations.size()));
+            }
+        }
+        return new Report(violations);
+    }
+
+    /** Returns at most max overlaps between consecutive tasks of the given machine. */
+    private static List<Violation> checkMachine(Schedule schedule, int machine, int max) {
+        Instance pb = schedule.pb;
+        // start time in the high bits and job in the low bits : sorting the keys sorts the tasks by start time,
+        // tasks of duration 0 being placed before the other tasks starting at the same time
+        long[] keys = new long[pb.numJobs];
+        for(int j = 0 ; j < pb.numJobs ; j++) {
+            int t = pb.task_with_machine(j, machine);
+            long nonZero = pb.duration(j, t) > 0 ? 1L << 31 : 0;
+            keys[j] = ((long) schedule.startTime(j, t) << 32) | nonZero | j;
+        }
+        Arrays.sort(keys);
+
+        List<Violation> violations = new ArrayList<>();
+        for(int i = 1 ; i < keys.length && violations.size() < max ; i++) {
+            int j1 = (int) (keys[i-1] & JOB_MASK);
+            int j2 = (int) (keys[i] & JOB_MASK);
+            int t1 = pb.task_with_machine(j1, machine);
+            int t2 = pb.task_with_machine(j2, machine);
+            if(schedule.startTime(j1, t1) + pb.duration(j1, t1) > schedule.startTime(j2, t2))
+                violations.add(new Violation(Violation.Kind.MACHINE_OVERLAP, new Task(j1, t1), new Task(j2, t2)));
+        }
+        return violations;
+    }
+}
@@ -0,0 +1,148 @@
+package jobshop.encodings;
+
+import jobshop.Encoding;
+import jobshop.Instance;
+import jobshop.Schedule;
+
+import java.util.Arrays;
+
+/** Resource order representation stored in a single array of job numbers.
+ *
+ * Since a job has exactly one task on each machine, the task executed at some position of a machine
+ * is fully identified by its job. Consider the solution in ResourceOrder representation
+ * machine 0 : (0,1) (1,2) (2,2)
+ * machine 1 : (0,2) (2,1) (1,1)
+ * It is represented by the array [0 1 2 0 2 1].
+ */
+public class CompactResourceOrder extends Encoding {
+
+    /** jobs[machine * numJobs + i] is the job of the i^th task executed on the machine */
+    public final int[] jobs;
+
+    public CompactResourceOrder(Instance instance) {
+        super(instance);
+        jobs = new int[instance.numMachines * instance.numJobs];
+    }
+
+    public CompactResourceOrder(ResourceOrder order) {
+        this(order.instance);
+        for(int m = 0; m < instance.numMachines; m++) {
+            for(int i = 0; i < instance.numJobs; i++) {
+                jobs[m * instance.numJobs + i] = order.tasks[m][i].job;
+            }
+        }
+    }
+
+    /** Each machine executes its tasks in the order in which they appear in the job numbers representation. */
+    public CompactResourceOrder(JobNumbers enc) {
+        this(enc.instance);
+        int[] nextTask = new int[instance.numJobs];
+        int[] machineProgression = new int[instance.numMachines];
+        for(int job : enc.jobs) {
+            int machine = instance.machine(job, nextTask[job]++);
+            jobs[machine * instance.numJobs + machineProgression[machine]++] = job;
+        }
+    }
+
+    /** Job of the i^th task executed on the given machine. */
+    public int job(int machine, int i) {
+        return jobs[machine * instance.numJobs + i];
+    }
+
+    /** Index in its job of the i^th task executed on the given machine. */
+    public int task(int machine, int i) {
+        return instance.task_with_machine(job(machine, i), machine);
+    }
+
+    /** Exchanges the tasks at position i1 and i2 on the given machine. */
+    public void swap(int machine, int i1, int i2) {
+        int offset = machine * instance.numJobs;
+        int tmp = jobs[offset + i1];
+        jobs[offset + i1] = jobs[offset + i2];
+        jobs[offset + i2] = tmp;
+    }
+
+    /** Moves the task at position from to position to on the given machine, shifting the tasks in between by one
+     * position. move(m, i, i + 1) is the same as swap(m, i, i + 1), and move(m, to, from) reverts move(m, from, to). */
+    public void move(int machine, int from, int to) {
+        int offset = machine * instance.numJobs;
+        int job = jobs[offset + from];
+        if(from < to) {
+            System.arraycopy(jobs, offset + from + 1, jobs, offset + from, to - from);
+        } else {
+            System.arraycopy(jobs, offset + to, jobs, offset + to + 1, from - to);
+        }
+        jobs[offset + to] = job;
+    }
+
+    public ResourceOrder toResourceOrder() {
+        ResourceOrder order = new ResourceOrder(instance);
+        for(int m = 0; m < instance.numMachines; m++) {
+            for(int i = 0; i < instance.numJobs; i++) {
+                order.tasks[m][i] = new Task(job(m, i), task(m, i));
+            }
+        }
+        return order;
+    }
+
+    /** Job numbers representation listing the tasks in a topological order of the disjunctive graph. */
+    public JobNumbers toJobNumbers() {
+        ScheduleEvaluator evaluator = new ScheduleEvaluator(instance);
+        if(evaluator.evaluate(this, new int[instance.numJobs * instance.numTasks]) < 0) {
+            throw new RuntimeException("Infeasible resource order : the machine orders contain a cycle");
+        }
+        JobNumbers enc = new JobNumbers(instance);
+        for(int k = 0; k < enc.jobs.length; k++) {
+            enc.jobs[enc.nextToSet++] = evaluator.topologicalOrder(k) / instance.numTasks;
+        }
+        return enc;
+    }
+
+    /** Builds the schedule by a topological traversal of the disjunctive graph.
+     * Throws a RuntimeException if the order is not feasible (the machine orders contain a cycle). */
+    @Override
+    public Schedule toSchedule() {
+        int[] startTimes = new int[instance.numJobs * instance.numTasks];
+        ScheduleEvaluator evaluator = new ScheduleEvaluator(instance);
+        if(evaluator.evaluate(this, startTimes) < 0) {
+            throw new RuntimeException("Infeasible resource order : the machine orders contain a cycle");
+        }
+        return new Schedule(instance, startTimes, evaluator.criticalPredecessors());
+    }
+
+    /** Copies the given solution of the same instance into this one. */
+    public void copyFrom(CompactResourceOrder other) {
+        System.arraycopy(other.jobs, 0, jobs, 0, jobs.length);
+    }
+
+    public CompactResourceOrder clone() {
+        CompactResourceOrder newOrder = new CompactResourceOrder(instance);
+        newOrder.copyFrom(this);
+        return newOrder;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Arrays.equals(jobs, ((CompactResourceOrder) o).jobs);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(jobs);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for(int m = 0; m < instance.numMachines; m++) {
+            sb.append("machine ").append(m).append(" :");
+            for(int i = 0; i < instance.numJobs; i++) {
+                sb.append(" (").append(job(m, i)).append(',').append(task(m, i)).append(')');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
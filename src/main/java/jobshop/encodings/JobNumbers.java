@@ -41,23 +41,39 @@ public class JobNumbers extends Encoding {
         // for each job, the first task that has not yet been scheduled
         int[] nextTask = new int[instance.numJobs];
 
+        // for each machine, the last task scheduled on it (job * numTasks + task), -1 if none
+        int[] lastTaskOnResource = new int[instance.numMachines];
+        Arrays.fill(lastTaskOnResource, -1);
+
         // for each task, its start time
-        int[][] startTimes = new int[instance.numJobs][instance.numTasks];
+        int[] startTimes = new int[instance.numJobs * instance.numTasks];
+
+        // for each task, the task whose end time fixed its start time, -1 if it starts at 0
+        int[] criticalPredecessors = new int[instance.numJobs * instance.numTasks];
 
         // compute the earliest start time for every task of every job
         for(int job : jobs) {
             int task = nextTask[job];
+            int id = job * instance.numTasks + task;
             int machine = instance.machine(job, task);
             // earliest start time for this task
-            int est = task == 0 ? 0 : startTimes[job][task-1] + instance.duration(job, task-1);
-            est = Math.max(est, nextFreeTimeResource[machine]);
+            int est = task == 0 ? 0 : startTimes[id-1] + instance.duration(job, task-1);
+            criticalPredecessors[id] = task == 0 ? -1 : id - 1;
+            if(nextFreeTimeResource[machine] > est) {
+                est = nextFreeTimeResource[machine];
+                criticalPredecessors[id] = lastTaskOnResource[machine];
+            }
+            if(est == 0) {
+                criticalPredecessors[id] = -1;
+            }
 
-            startTimes[job][task] = est;
+            startTimes[id] = est;
             nextFreeTimeResource[machine] = est + instance.duration(job, task);
+            lastTaskOnResource[machine] = id;
             nextTask[job] = task + 1;
         }
 
-        return new Schedule(instance, startTimes);
+        return new Schedule(instance, startTimes, criticalPredecessors);
     }
 
     @Override
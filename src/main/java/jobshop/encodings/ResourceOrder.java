@@ -4,7 +4,8 @@ import jobshop.Encoding;
 import jobshop.Instance;
 import jobshop.Schedule;
 
-import java.util.PriorityQueue;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Queue;
 
 public class ResourceOrder extends Encoding {
@@ -26,55 +27,30 @@ public class ResourceOrder extends Encoding {
         }
     }
 
-    @Override
-    public Schedule toSchedule() {
-        int time = 0;
-        int[][] startTimes = new int[instance.numJobs][instance.numTasks];
-
-        // for each job, the first task that has not yet been scheduled
-        int[] jobProgression = new int[instance.numJobs];
-
-        // for each machine, the number of tasks executed
-        int[] machineProgression = new int[instance.numMachines];
-
-        // for each machine, true if processing a task
-        boolean[] machineBusy = new boolean[instance.numMachines];
-
-        class TaskInProgress implements Comparable<TaskInProgress> {
-           final int endTime, job, machine;
-            TaskInProgress(int endTime, int job, int machine) {
-                this.endTime = endTime; this.job = job; this.machine = machine;
-            }
-            @Override
-            public int compareTo(TaskInProgress o) {
-                return Integer.compare(endTime, o.endTime);
+    /** Each machine executes its tasks in the order of their start times in the given schedule. */
+    public ResourceOrder(Schedule schedule) {
+        super(schedule.pb);
+        tasks = new Task[instance.numMachines][instance.numJobs];
+        for(int m = 0; m < instance.numMachines; m++) {
+            for(int j = 0; j < instance.numJobs; j++) {
+                tasks[m][j] = new Task(j, instance.task_with_machine(j, m));
             }
+            // tasks of duration 0 first among the tasks starting at the same time
+            Arrays.sort(tasks[m], Comparator.comparingInt((Task t) -> schedule.startTime(t))
+                    .thenComparingInt(schedule::endTime));
         }
+    }
 
-        Queue<TaskInProgress> queue = new PriorityQueue<>();
-
-        while (true) {
-            for(int m = 0; m < instance.numMachines; m++) {
-                if(machineProgression[m] >= tasks[0].length)
-                    continue;
-                Task nextTask = tasks[m][machineProgression[m]];
-                if(!machineBusy[m] && nextTask.task == jobProgression[nextTask.job]) {
-                    int duration = instance.duration(nextTask.job, nextTask.task);
-                    queue.offer(new TaskInProgress(time + duration, nextTask.job, m));
-                    startTimes[nextTask.job][nextTask.task] = time;
-                    machineBusy[m] = true;
-                }
-            }
-            TaskInProgress task = queue.poll();
-            if(task == null)
-                break;
-            time = task.endTime;
-            machineProgression[task.machine]++;
-            jobProgression[task.job]++;
-            machineBusy[task.machine] = false;
+    /** Builds the schedule by a topological traversal of the disjunctive graph.
+     * Throws a RuntimeException if the order is not feasible (the machine orders contain a cycle). */
+    @Override
+    public Schedule toSchedule() {
+        int[] startTimes = new int[instance.numJobs * instance.numTasks];
+        ScheduleEvaluator evaluator = new ScheduleEvaluator(instance);
+        if(evaluator.evaluate(this, startTimes) < 0) {
+            throw new RuntimeException("Infeasible resource order : the machine orders contain a cycle");
         }
-
-        return new Schedule(instance, startTimes);
+        return new Schedule(instance, startTimes, evaluator.criticalPredecessors());
     }
 
     public ResourceOrder clone() {
@@ -0,0 +1,280 @@
+package jobshop.encodings;
+
+import jobshop.Instance;
+
+import java.util.Arrays;
+
+/** Computes the earliest start times of a resource order by a topological traversal of its disjunctive graph.
+ *
+ * Tasks are identified by an integer : job * numTasks + task.
+ * Each task has at most two predecessors : the previous task of its job and the previous task on its machine.
+ * Start times are computed in O(numJobs * numTasks) and written in a buffer provided by the caller.
+ * All other buffers are allocated once, so that an evaluator can be reused to evaluate many solutions
+ * of the same instance without producing any garbage.
+ *
+ * An evaluator is not thread safe, each thread should use its own.
+ */
+public class ScheduleEvaluator {
+
+    public final Instance instance;
+    private final int numJobs;
+    private final int numTasks;
+    private final int numMachines;
+
+    /** durations[id] is the duration of the task */
+    private final int[] durations;
+    /** machines[id] is the machine of the task */
+    private final int[] machines;
+    /** taskOfMachine[job * numMachines + machine] is the index of the task of the job executed on the machine */
+    private final int[] taskOfMachine;
+
+    /** task preceding / following the task on its machine, -1 if none */
+    private final int[] machinePred;
+    private final int[] machineSucc;
+    /** sequence[machine * numJobs + i] is the i^th task executed on the machine */
+    private final int[] sequence;
+    /** position[id] is the index of the task in the sequence of its machine */
+    private final int[] position;
+
+    private final int[] inDegree;
+    /** tasks of the last evaluated solution in topological order */
+    private final int[] topologicalOrder;
+    /** criticalPred[id] is the predecessor (on the job or on the machine) whose end time is the start time of the task,
+     * -1 if the task starts at 0 */
+    private final int[] criticalPred;
+    /** first job's last task ending at the makespan, in the last evaluated solution */
+    private int lastTask;
+    private final int[] pathBuffer;
+
+    public ScheduleEvaluator(Instance instance) {
+        this.instance = instance;
+        this.numJobs = instance.numJobs;
+        this.numTasks = instance.numTasks;
+        this.numMachines = instance.numMachines;
+        int size = numJobs * numTasks;
+        durations = new int[size];
+        machines = new int[size];
+        taskOfMachine = new int[numJobs * numMachines];
+        for(int id = 0; id < size; id++) {
+            durations[id] = instance.duration(id);
+            machines[id] = instance.machine(id);
+        }
+        for(int j = 0; j < numJobs; j++) {
+            for(int m = 0; m < numMachines; m++) {
+                taskOfMachine[j * numMachines + m] = instance.task_with_machine(j, m);
+            }
+        }
+        machinePred = new int[size];
+        machineSucc = new int[size];
+        sequence = new int[numMachines * numJobs];
+        position = new int[size];
+        inDegree = new int[size];
+        topologicalOrder = new int[size];
+        criticalPred = new int[size];
+        pathBuffer = new int[size];
+    }
+
+    /** Writes in startTimes[job * numTasks + task] the earliest start time of each task of the given solution.
+     * Returns the makespan, or -1 if the solution contains a cycle (in which case startTimes is meaningless). */
+    public int evaluate(CompactResourceOrder order, int[] startTimes) {
+        for(int m = 0; m < numMachines; m++) {
+            for(int i = 0; i < numJobs; i++) {
+                int job = order.jobs[m * numJobs + i];
+                sequence[m * numJobs + i] = job * numTasks + taskOfMachine[job * numMachines + m];
+            }
+        }
+        return propagate(startTimes);
+    }
+
+    /** Same as evaluate(CompactResourceOrder, int[]) for the ResourceOrder representation. */
+    public int evaluate(ResourceOrder order, int[] startTimes) {
+        for(int m = 0; m < numMachines; m++) {
+            for(int i = 0; i < numJobs; i++) {
+                Task t = order.tasks[m][i];
+                sequence[m * numJobs + i] = t.job * numTasks + t.task;
+            }
+        }
+        return propagate(startTimes);
+    }
+
+    /** Same as evaluate(CompactResourceOrder, int[]) for a partial solution : sequences[m] holds the tasks of machine m in
+     * their order of execution, or is null if the machine is not sequenced yet, its tasks then being constrained by their
+     * jobs only. */
+    public int evaluate(int[][] sequences, int[] startTimes) {
+        for(int m = 0; m < numMachines; m++) {
+            if(sequences[m] == null) {
+                sequence[m * numJobs] = -1;
+            } else {
+                System.arraycopy(sequences[m], 0, sequence, m * numJobs, numJobs);
+            }
+        }
+        return propagate(startTimes);
+    }
+
+    private int propagate(int[] startTimes) {
+        for(int m = 0; m < numMachines; m++) {
+            if(sequence[m * numJobs] == -1) {
+                // machine not sequenced
+                for(int j = 0; j < numJobs; j++) {
+                    int id = j * numTasks + taskOfMachine[j * numMachines + m];
+                    machinePred[id] = -1;
+                    machineSucc[id] = -1;
+                }
+                continue;
+            }
+            int pred = -1;
+            for(int i = 0; i < numJobs; i++) {
+                int id = sequence[m * numJobs + i];
+                position[id] = i;
+                machinePred[id] = pred;
+                machineSucc[id] = -1;
+                if(pred != -1) {
+                    machineSucc[pred] = id;
+                }
+                pred = id;
+            }
+        }
+
+        // Kahn's algorithm : a task is processed once all its predecessors have been
+        int size = numJobs * numTasks;
+        int queued = 0;
+        for(int id = 0; id < size; id++) {
+            inDegree[id] = (id % numTasks == 0 ? 0 : 1) + (machinePred[id] == -1 ? 0 : 1);
+            startTimes[id] = 0;
+            if(inDegree[id] == 0) {
+                topologicalOrder[queued++] = id;
+            }
+        }
+        int makespan = 0;
+        for(int done = 0; done < queued; done++) {
+            int id = topologicalOrder[done];
+            int end = startTimes[id] + durations[id];
+            makespan = Math.max(makespan, end);
+            int next = jobSuccessor(id);
+            if(next != -1) {
+                startTimes[next] = Math.max(startTimes[next], end);
+                if(--inDegree[next] == 0) {
+                    topologicalOrder[queued++] = next;
+                }
+            }
+            next = machineSucc[id];
+            if(next != -1) {
+                startTimes[next] = Math.max(startTimes[next], end);
+                if(--inDegree[next] == 0) {
+                    topologicalOrder[queued++] = next;
+                }
+            }
+        }
+        if(queued < size) {
+            // tasks that were never queued belong to a cycle
+            return -1;
+        }
+
+        // the start time of a task is the end time of one of its predecessors, the one on the job being preferred
+        for(int id = 0; id < size; id++) {
+            int jobPred = jobPredecessor(id);
+            int pred = machinePred[id];
+            if(startTimes[id] == 0) {
+                criticalPred[id] = -1;
+            } else if(jobPred != -1 && startTimes[jobPred] + durations[jobPred] == startTimes[id]) {
+                criticalPred[id] = jobPred;
+            } else {
+                assert pred != -1 && startTimes[pred] + durations[pred] == startTimes[id];
+                criticalPred[id] = pred;
+            }
+        }
+        lastTask = -1;
+        for(int j = 0; j < numJobs && lastTask == -1; j++) {
+            int id = (j + 1) * numTasks - 1;
+            if(startTimes[id] + durations[id] == makespan) {
+                lastTask = id;
+            }
+        }
+        return makespan;
+    }
+
+    /** Writes in path the tasks of a critical path of the last evaluated solution, from the first to the last one,
+     * by following the critical predecessors from the task ending last. Returns the number of tasks of the path. */
+    public int criticalPath(int[] path) {
+        int length = 0;
+        for(int id = lastTask; id != -1; id = criticalPred[id]) {
+            path[length++] = id;
+        }
+        for(int i = 0, j = length - 1; i < j; i++, j--) {
+            int tmp = path[i];
+            path[i] = path[j];
+            path[j] = tmp;
+        }
+        return length;
+    }
+
+    /** Writes in blocks the critical blocks (maximal sequences of at least two tasks of the critical path executed on the
+     * same machine) of the last evaluated solution. The k^th block is described by blocks[3k] : its machine,
+     * blocks[3k+1] and blocks[3k+2] : the indices of its first and last tasks in the sequence of the machine.
+     * Returns the number of blocks. */
+    public int criticalBlocks(int[] blocks) {
+        int length = criticalPath(pathBuffer);
+        int numBlocks = 0;
+        int first = 0;
+        for(int i = 1; i <= length; i++) {
+            if(i == length || machines[pathBuffer[i]] != machines[pathBuffer[first]]) {
+                if(i - first >= 2) {
+                    blocks[3 * numBlocks] = machines[pathBuffer[first]];
+                    blocks[3 * numBlocks + 1] = position[pathBuffer[first]];
+                    blocks[3 * numBlocks + 2] = position[pathBuffer[i - 1]];
+                    numBlocks++;
+                }
+                first = i;
+            }
+        }
+        return numBlocks;
+    }
+
+    /** Copy of the critical predecessors of the tasks of the last evaluated solution. */
+    public int[] criticalPredecessors() {
+        return Arrays.copyOf(criticalPred, criticalPred.length);
+    }
+
+    /** Machine of the given task. */
+    public int machine(int id) {
+        return machines[id];
+    }
+
+    /** Duration of the given task. */
+    public int duration(int id) {
+        return durations[id];
+    }
+
+    /** Task at index i in the sequence of the given machine, in the last evaluated solution. */
+    public int taskAt(int machine, int i) {
+        return sequence[machine * numJobs + i];
+    }
+
+    /** Index of the given task in the sequence of its machine, in the last evaluated solution. */
+    public int position(int id) {
+        return position[id];
+    }
+
+    /** k^th task of the topological order of the last evaluated solution. */
+    public int topologicalOrder(int k) {
+        return topologicalOrder[k];
+    }
+
+    public int jobPredecessor(int id) {
+        return id % numTasks == 0 ? -1 : id - 1;
+    }
+
+    public int jobSuccessor(int id) {
+        return (id + 1) % numTasks == 0 ? -1 : id + 1;
+    }
+
+    /** Task executed before the given one on its machine in the last evaluated solution, -1 if none. */
+    public int machinePredecessor(int id) {
+        return machinePred[id];
+    }
+
+    /** Task executed after the given one on its machine in the last evaluated solution, -1 if none. */
+    public int machineSuccessor(int id) {
+        return machineSucc[id];
+    }
+}
@@ -0,0 +1,189 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.encodings.CompactResourceOrder;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.Random;
+
+/** Simulated annealing over resource orders, with the moves of the critical blocks.
+ *
+ * A move either swaps two adjacent tasks of a critical block or moves a task of a block to its beginning or to its end.
+ * A random move is accepted if its estimated makespan (see MoveEvaluator) is not worse than the current one, or with
+ * probability exp(-delta / temperature) otherwise. Only accepted moves are evaluated exactly : rejected moves cost
+ * O(length of the block) and no object is allocated in the main loop.
+ *
+ * The temperature goes from the initial temperature to the final one at the deadline, following the cooling schedule.
+ * The initial temperature is calibrated on random moves of the initial solution so that about INITIAL_ACCEPTANCE of
+ * the worsening moves are accepted. When the best solution has not been improved for maxStagnation moves, the search
+ * restarts from it with a new cooling phase from a fraction of the initial temperature (reheating) until the deadline.
+ */
+public class AnnealingSolver implements Solver {
+
+    /** temperature decreasing exponentially with time */
+    public static final int GEOMETRIC = 0;
+    /** temperature decreasing linearly with time */
+    public static final int LINEAR = 1;
+    /** temperature T0 / (1 + beta t) (Lundy and Mees 1986), decreasing quickly at first then slowly */
+    public static final int LUNDY_MEES = 2;
+
+    /** probability of accepting an average worsening move at the initial temperature */
+    static final double INITIAL_ACCEPTANCE = 0.3;
+    /** final temperature, relatively to the initial temperature */
+    static final double FINAL_RATIO = 0.001;
+    /** initial temperature of a reheating, relatively to the initial temperature */
+    private static final double REHEAT_RATIO = 0.3;
+    private static final int CALIBRATION_MOVES = 1000;
+    /** the clock is read (and the temperature updated) every this number of moves */
+    private static final int CLOCK_PERIOD = 256;
+
+    private final int cooling;
+    /** number of moves without improvement of the best solution before a reheating */
+    private final int maxStagnation;
+    /** solver building the initial solution */
+    private final Solver seed;
+
+    public AnnealingSolver(int cooling, int maxStagnation, Solver seed) {
+        this.cooling = cooling;
+        this.maxStagnation = maxStagnation;
+        this.seed = seed;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        int lowerBound = new LowerBounds(instance).value();
+        CompactResourceOrder start = new CompactResourceOrder(new ResourceOrder(seed.solve(instance, deadline).schedule));
+        CompactResourceOrder best = new Annealing(instance, new Random(0)).run(start, lowerBound, deadline);
+        int makespan = new MoveEvaluator(instance).evaluate(best);
+        Result.ExitCause cause = makespan <= lowerBound ? Result.ExitCause.ProvedOptimal : Result.ExitCause.Timeout;
+        return new Result(instance, best.toSchedule(), cause, lowerBound);
+    }
+
+    /** State of one annealing : the current solution with its heads, tails and critical blocks. */
+    class Annealing {
+        private final Random random;
+        final CompactResourceOrder current;
+        MoveEvaluator evaluator;
+        /** evaluation of the solution after an accepted move, swapped with evaluator if the move is feasible */
+        private MoveEvaluator candidate;
+        private int numBlocks;
+        /** last drawn move */
+        private int machine, from, to;
+
+        Annealing(Instance instance, Random random) {
+            this.random = random;
+            current = new CompactResourceOrder(instance);
+            evaluator = new MoveEvaluator(instance);
+            candidate = new MoveEvaluator(instance);
+        }
+
+        CompactResourceOrder run(CompactResourceOrder start, int lowerBound, long deadline) {
+            current.copyFrom(start);
+            int makespan = load();
+            CompactResourceOrder best = start.clone();
+            int bestMakespan = makespan;
+
+            double initialTemperature = calibrate(makespan);
+            double phaseTemperature = initialTemperature;
+            long phaseStart = System.currentTimeMillis();
+            double temperature = phaseTemperature;
+            int lastImprovement = 0;
+
+            for(int move = 0; numBlocks > 0 && bestMakespan > lowerBound; move++) {
+                if(move % CLOCK_PERIOD == 0) {
+                    long now = System.currentTimeMillis();
+                    if(now >= deadline)
+                        break;
+                    if(move - lastImprovement >= maxStagnation) {
+                        // reheating : new cooling phase from the best solution
+                        current.copyFrom(best);
+                        makespan = load();
+                        phaseTemperature = REHEAT_RATIO * initialTemperature;
+                        phaseStart = now;
+                        lastImprovement = move;
+                    }
+                    double progress = (double) (now - phaseStart) / Math.max(1, deadline - phaseStart);
+                    temperature = temperature(phaseTemperature, progress);
+                }
+
+                randomMove();
+                int delta = evaluator.estimateMove(machine, from, to) - makespan;
+                if(delta > 0 && random.nextDouble() >= Math.exp(-delta / temperature))
+                    continue;
+                current.move(machine, from, to);
+                if(candidate.load(current) < 0) {
+                    // moving a task to the border of its block may create a cycle
+                    current.move(machine, to, from);
+                    continue;
+                }
+                MoveEvaluator previous = evaluator;
+                evaluator = candidate;
+                candidate = previous;
+                makespan = evaluator.makespan();
+                numBlocks = evaluator.criticalBlocks();
+                if(makespan < bestMakespan) {
+                    bestMakespan = makespan;
+                    best.copyFrom(current);
+                    lastImprovement = move;
+                }
+            }
+            return best;
+        }
+
+        /** Evaluates the current solution and returns its makespan. */
+        int load() {
+            int makespan = evaluator.load(current);
+            numBlocks = evaluator.criticalBlocks();
+            return makespan;
+        }
+
+        /** Initial temperature at which the average worsening of random moves is accepted with INITIAL_ACCEPTANCE
+         * probability. */
+        double calibrate(int makespan) {
+            long worsening = 0;
+            int count = 0;
+            for(int k = 0; k < CALIBRATION_MOVES && numBlocks > 0; k++) {
+                randomMove();
+                int delta = evaluator.estimateMove(machine, from, to) - makespan;
+                if(delta > 0) {
+                    worsening += delta;
+                    count++;
+                }
+            }
+            double average = count == 0 ? 1 : (double) worsening / count;
+            return -average / Math.log(INITIAL_ACCEPTANCE);
+        }
+
+        /** Temperature after the given fraction of the cooling phase. */
+        double temperature(double initial, double progress) {
+            double end = FINAL_RATIO * initial;
+            progress = Math.min(1, progress);
+            switch(cooling) {
+                case LINEAR:
+                    return initial + (end - initial) * progress;
+                case LUNDY_MEES:
+                    return initial / (1 + (initial / end - 1) * progress);
+                default:
+                    return initial * Math.pow(end / initial, progress);
+            }
+        }
+
+        /** Draws a move of a random critical block into machine, from and to : either a swap of two adjacent tasks or
+         * the move of a task to the beginning or to the end of the block. */
+        private void randomMove() {
+            int b = random.nextInt(numBlocks);
+            machine = evaluator.blocks[3 * b];
+            int first = evaluator.blocks[3 * b + 1];
+            int last = evaluator.blocks[3 * b + 2];
+            if(last == first + 1 || random.nextBoolean()) {
+                from = first + random.nextInt(last - first);
+                to = from + 1;
+            } else {
+                from = first + random.nextInt(last - first + 1);
+                to = from == first || (from != last && random.nextBoolean()) ? last : first;
+            }
+        }
+    }
+}
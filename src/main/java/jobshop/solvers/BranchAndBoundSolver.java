@@ -0,0 +1,509 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.encodings.CompactResourceOrder;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** Exact solver : branch and bound on the disjunctive graph (Brucker, Jurisch and Sievers 1994).
+ *
+ * A node is a selection : the orders of some pairs of tasks of the same machine are fixed.
+ * At each node :
+ *  - immediate selection fixes the pairs whose other order cannot lead to a solution better than the best one,
+ *  - the lower bound is the largest value of the preemptive one machine problems given by the heads and tails of the
+ *    tasks in the graph of the selection,
+ *  - edge finding fixes the tasks that must be executed before or after a set of tasks of their machine,
+ *  - a complete solution respecting the selection is built by a Giffler and Thompson list scheduling,
+ *  - if it is not proved optimal for the node, the children move one task of a block of its critical path before or
+ *    after all the other tasks of the block. If a better solution exists, one of these moves is needed.
+ * The initial upper bound is the solution of a heuristic solver, run during a fraction of the time.
+ * The solver returns ProvedOptimal when the tree is exhausted before the deadline.
+ */
+public class BranchAndBoundSolver implements Solver {
+
+    /** solver giving the initial upper bound */
+    private final Solver seed;
+    /** fraction of the available time given to the seed solver */
+    private final double seedTimeRatio;
+
+    public BranchAndBoundSolver(Solver seed, double seedTimeRatio) {
+        this.seed = seed;
+        this.seedTimeRatio = seedTimeRatio;
+    }
+
+    /** Initial upper bound given by at most 20000 iterations of TSAB started from the shifting bottleneck solution,
+     * during at most 10% of the time. */
+    public BranchAndBoundSolver() {
+        this(new TSABSolver(20000, 2500, TSABSolver.N6, new ShiftingBottleneckSolver()), 0.1);
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        SharedBest best = new SharedBest();
+        Search search = new Search(instance, best);
+        search.seed(seed, seedTimeRatio, deadline);
+
+        boolean[] root = search.emptySelection();
+        int rootBound = Math.max(search.bound(root, Integer.MAX_VALUE), new LowerBounds(instance, true).value());
+        boolean exhausted = best.makespan() <= rootBound || search.explore(root, deadline);
+
+        int makespan = best.makespan();
+        Result.ExitCause cause = exhausted ? Result.ExitCause.ProvedOptimal : Result.ExitCause.Timeout;
+        return new Result(instance, best.get().order.toSchedule(), cause, exhausted ? makespan : Math.min(rootBound, makespan));
+    }
+
+    /** Nodes of the search tree : bounding, completion into a solution and branching.
+     * Buffers are allocated once, a search is not thread safe. The best solution may be shared by several searches.
+     *
+     * Tasks are identified by an integer : job * numTasks + task.
+     * A selection is a boolean array : selection[(machine * numJobs + a) * numJobs + b] is true if the task of job a is
+     * executed before the task of job b on the machine. */
+    static class Search {
+        final Instance instance;
+        private final int numJobs;
+        private final int numTasks;
+        private final int numMachines;
+        private final int size;
+        final SharedBest best;
+
+        /** taskOf[job * numMachines + machine] is the task of the job on the machine */
+        private final int[] taskOf;
+        private final int[] heads;
+        private final int[] tails;
+        private final int[] inDegree;
+        private final int[] topologicalOrder;
+        private final long[] byHead;
+        private final long[] byTail;
+        /** buffers of edge finding */
+        private final int[] list, position, value, prefixArg, suffixArg;
+        /** buffers of the construction of a solution */
+        private final int[] release;
+        private final int[] ready;
+        private final int[] machineAvailable;
+        private final int[] machineProgression;
+
+        private final OneMachineScheduler scheduler;
+        private final int[] r, p, q;
+
+        /** solution built at the current node and its evaluation */
+        private final CompactResourceOrder solution;
+        private final MoveEvaluator evaluator;
+
+        Search(Instance instance, SharedBest best) {
+            this.instance = instance;
+            this.best = best;
+            numJobs = instance.numJobs;
+            numTasks = instance.numTasks;
+            numMachines = instance.numMachines;
+            size = numJobs * numTasks;
+            taskOf = new int[numJobs * numMachines];
+            for(int j = 0; j < numJobs; j++) {
+                for(int m = 0; m < numMachines; m++) {
+                    taskOf[j * numMachines + m] = j * numTasks + instance.task_with_machine(j, m);
+                }
+            }
+            heads = new int[size];
+            tails = new int[size];
+            inDegree = new int[size];
+            topologicalOrder = new int[size];
+            byHead = new long[numJobs];
+            byTail = new long[numJobs];
+            list = new int[numJobs];
+            position = new int[numJobs];
+            value = new int[numJobs];
+            prefixArg = new int[numJobs];
+            suffixArg = new int[numJobs];
+            release = new int[size];
+            ready = new int[size];
+            machineAvailable = new int[numMachines];
+            machineProgression = new int[numMachines];
+            scheduler = new OneMachineScheduler(numJobs);
+            r = new int[numJobs];
+            p = new int[numJobs];
+            q = new int[numJobs];
+            solution = new CompactResourceOrder(instance);
+            evaluator = new MoveEvaluator(instance);
+        }
+
+        boolean[] emptySelection() {
+            return new boolean[numMachines * numJobs * numJobs];
+        }
+
+        /** Runs the seed solver during the given fraction of the time left and offers its solution. */
+        void seed(Solver seed, double timeRatio, long deadline) {
+            long now = System.currentTimeMillis();
+            long seedDeadline = now + (long) (timeRatio * Math.max(0, deadline - now));
+            CompactResourceOrder order = new CompactResourceOrder(new ResourceOrder(seed.solve(instance, seedDeadline).schedule));
+            best.offer(order, evaluator.evaluate(order));
+        }
+
+        /** Depth first exploration of the subtree of the given selection, children with the smallest bounds first.
+         * Returns false if the deadline was reached before the subtree was exhausted. */
+        boolean explore(boolean[] selection, long deadline) {
+            if(System.currentTimeMillis() >= deadline)
+                return false;
+            List<boolean[]> children = new ArrayList<>();
+            List<Integer> bounds = new ArrayList<>();
+            expand(selection, children, bounds);
+            Integer[] order = new Integer[children.size()];
+            for(int k = 0; k < order.length; k++)
+                order[k] = k;
+            Arrays.sort(order, (k1, k2) -> Integer.compare(bounds.get(k1), bounds.get(k2)));
+            for(int k : order) {
+                // the best solution may have been improved since the child was bounded
+                if(bounds.get(k) < best.makespan() && !explore(children.get(k), deadline))
+                    return false;
+            }
+            return true;
+        }
+
+        /** Bounds the node of the given selection, builds a solution from it and, if the node is not closed, adds its
+         * children to the given list with their lower bounds. The selection may be completed by immediate selection. */
+        void expand(boolean[] selection, List<boolean[]> children, List<Integer> bounds) {
+            int upperBound = best.makespan();
+            int lowerBound = bound(selection, upperBound);
+            if(lowerBound >= upperBound)
+                return;
+
+            int makespan = complete(selection);
+            if(makespan < best.makespan())
+                best.offer(solution.clone(), makespan);
+            if(makespan <= lowerBound)
+                return;
+
+            // blocks of the critical path of the solution : (machine, jobs of the block in order)
+            int numBlocks = evaluator.criticalBlocks();
+            int[][] blocks = new int[numBlocks][];
+            int[] blockMachines = new int[numBlocks];
+            for(int b = 0; b < numBlocks; b++) {
+                blockMachines[b] = evaluator.blocks[3 * b];
+                int first = evaluator.blocks[3 * b + 1];
+                int last = evaluator.blocks[3 * b + 2];
+                blocks[b] = new int[last - first + 1];
+                for(int i = first; i <= last; i++)
+                    blocks[b][i - first] = solution.job(blockMachines[b], i);
+            }
+
+            for(int b = 0; b < numBlocks; b++) {
+                int machine = blockMachines[b];
+                int[] block = blocks[b];
+                for(int before = 0; before < 2; before++) {
+                    for(int i = 0; i < block.length; i++) {
+                        // the first task of the block is already before the others, the last one after them
+                        if((before == 1 && i == 0) || (before == 0 && i == block.length - 1))
+                            continue;
+                        boolean[] child = selection.clone();
+                        // the blocks before this one keep their first and last tasks
+                        boolean feasible = true;
+                        for(int previous = 0; previous < b && feasible; previous++) {
+                            int[] other = blocks[previous];
+                            feasible = fixFirst(child, blockMachines[previous], other, 0)
+                                    && fixLast(child, blockMachines[previous], other, other.length - 1);
+                        }
+                        feasible = feasible && (before == 1 ? fixFirst(child, machine, block, i) : fixLast(child, machine, block, i));
+                        if(!feasible)
+                            continue;
+                        int childBound = bound(child, best.makespan());
+                        if(childBound < best.makespan()) {
+                            children.add(child);
+                            bounds.add(childBound);
+                        }
+                    }
+                }
+            }
+        }
+
+        /** Fixes block[i] before all the other jobs of the block. Returns false if it contradicts the selection. */
+        private boolean fixFirst(boolean[] selection, int machine, int[] block, int i) {
+            for(int k = 0; k < block.length; k++) {
+                if(k != i && !fix(selection, machine, block[i], block[k]))
+                    return false;
+            }
+            return true;
+        }
+
+        /** Fixes block[i] after all the other jobs of the block. Returns false if it contradicts the selection. */
+        private boolean fixLast(boolean[] selection, int machine, int[] block, int i) {
+            for(int k = 0; k < block.length; k++) {
+                if(k != i && !fix(selection, machine, block[k], block[i]))
+                    return false;
+            }
+            return true;
+        }
+
+        /** Fixes job a before job b on the machine. Returns false if b is already fixed before a. */
+        private boolean fix(boolean[] selection, int machine, int a, int b) {
+            int base = machine * numJobs;
+            if(selection[(base + b) * numJobs + a])
+                return false;
+            selection[(base + a) * numJobs + b] = true;
+            return true;
+        }
+
+        /** Lower bound of the makespan of the solutions respecting the selection, Integer.MAX_VALUE if there is none.
+         * The orders implied by the upper bound are added to the selection (immediate selection) : when executing j
+         * before i implies a makespan of at least the upper bound, i is fixed before j. Once this returns a value lower
+         * than the upper bound, heads and tails are those of the returned selection. */
+        int bound(boolean[] selection, int upperBound) {
+            while(true) {
+                if(!updateHeadsAndTails(selection))
+                    return Integer.MAX_VALUE;
+                int lowerBound = 0;
+                for(int id = 0; id < size; id++)
+                    lowerBound = Math.max(lowerBound, heads[id] + instance.duration(id) + tails[id]);
+                if(lowerBound >= upperBound)
+                    return lowerBound;
+
+                boolean changed = false;
+                for(int m = 0; m < numMachines; m++) {
+                    int base = m * numJobs;
+                    for(int a = 0; a < numJobs; a++) {
+                        int ia = taskOf[a * numMachines + m];
+                        for(int b = a + 1; b < numJobs; b++) {
+                            if(selection[(base + a) * numJobs + b] || selection[(base + b) * numJobs + a])
+                                continue;
+                            int ib = taskOf[b * numMachines + m];
+                            boolean aBeforeB = heads[ia] + instance.duration(ia) + instance.duration(ib) + tails[ib] < upperBound;
+                            boolean bBeforeA = heads[ib] + instance.duration(ib) + instance.duration(ia) + tails[ia] < upperBound;
+                            if(!aBeforeB && !bBeforeA)
+                                return Integer.MAX_VALUE;
+                            if(!bBeforeA) {
+                                selection[(base + a) * numJobs + b] = true;
+                                changed = true;
+                            } else if(!aBeforeB) {
+                                selection[(base + b) * numJobs + a] = true;
+                                changed = true;
+                            }
+                        }
+                    }
+                    changed |= edgeFinding(selection, m, upperBound);
+                }
+                if(changed)
+                    continue;
+
+                for(int m = 0; m < numMachines; m++) {
+                    for(int j = 0; j < numJobs; j++) {
+                        int id = taskOf[j * numMachines + m];
+                        r[j] = heads[id];
+                        p[j] = instance.duration(id);
+                        q[j] = tails[id];
+                    }
+                    lowerBound = Math.max(lowerBound, scheduler.preemptiveBound(numJobs, r, p, q));
+                }
+                return lowerBound;
+            }
+        }
+
+        /** Edge finding (Carlier and Pinson 1989). If a task c is not executed after all the tasks of a set J of the same
+         * machine, the last one belongs to J and the makespan is at least min(r of J and c) + p(J) + p(c) + min(q of J).
+         * When this reaches the upper bound, c is fixed after all the tasks of J. Symmetrically, c is fixed before J if
+         * min(r of J) + p(J) + p(c) + min(q of J and c) reaches the upper bound.
+         * Returns true if the selection was modified. */
+        private boolean edgeFinding(boolean[] selection, int machine, int upperBound) {
+            for(int j = 0; j < numJobs; j++) {
+                int id = taskOf[j * numMachines + machine];
+                r[j] = heads[id];
+                p[j] = instance.duration(id);
+                q[j] = tails[id];
+                byHead[j] = ((long) r[j] << 32) | j;
+                byTail[j] = ((long) q[j] << 32) | j;
+            }
+            Arrays.sort(byHead, 0, numJobs);
+            Arrays.sort(byTail, 0, numJobs);
+            boolean changed = edgeFinding(selection, machine, upperBound, r, q, byTail, true);
+            return edgeFinding(selection, machine, upperBound, q, r, byHead, false) || changed;
+        }
+
+        /** One direction of edge finding. To fix c after J, the sets J tested are, for each task k, the tasks whose head
+         * (filter) is at least the one of k, taken by decreasing tail (other) : J is then a prefix of this list and the
+         * smallest tail of J is the one of its last task. Fixing c before J is symmetric, heads and tails being
+         * exchanged. Prefix and suffix maxima make the test of each task c O(1), hence O(numJobs^2) per machine. */
+        private boolean edgeFinding(boolean[] selection, int machine, int upperBound, int[] filter, int[] other,
+                                    long[] byOther, boolean after) {
+            boolean changed = false;
+            for(int k = 0; k < numJobs; k++) {
+                int length = 0;
+                int sum = 0;
+                Arrays.fill(position, 0, numJobs, -1);
+                for(int t = numJobs - 1; t >= 0; t--) {
+                    int j = (int) byOther[t];
+                    if(filter[j] < filter[k])
+                        continue;
+                    sum += p[j];
+                    list[length] = j;
+                    position[j] = length;
+                    // p of the prefix ending at j plus the smallest value of other in this prefix
+                    value[length] = sum + other[j];
+                    length++;
+                }
+                for(int t = 0; t < length; t++)
+                    prefixArg[t] = t > 0 && value[prefixArg[t - 1]] >= value[t] ? prefixArg[t - 1] : t;
+                for(int t = length - 1; t >= 0; t--)
+                    suffixArg[t] = t < length - 1 && value[suffixArg[t + 1]] >= value[t] ? suffixArg[t + 1] : t;
+
+                for(int c = 0; c < numJobs; c++) {
+                    int pc = position[c];
+                    // prefixes before c do not contain it, its duration is added. Prefixes after c already contain it.
+                    int bestValue = Integer.MIN_VALUE;
+                    int end = -1;
+                    int before = pc < 0 ? length - 1 : pc - 1;
+                    if(before >= 0) {
+                        bestValue = value[prefixArg[before]] + p[c];
+                        end = prefixArg[before];
+                    }
+                    if(pc >= 0 && pc + 1 < length && value[suffixArg[pc + 1]] > bestValue) {
+                        bestValue = value[suffixArg[pc + 1]];
+                        end = suffixArg[pc + 1];
+                    }
+                    if(end < 0 || Math.min(filter[k], filter[c]) + bestValue < upperBound)
+                        continue;
+                    for(int t = 0; t <= end; t++) {
+                        int j = list[t];
+                        if(j == c)
+                            continue;
+                        int index = after ? (machine * numJobs + j) * numJobs + c : (machine * numJobs + c) * numJobs + j;
+                        if(!selection[index]) {
+                            selection[index] = true;
+                            changed = true;
+                        }
+                    }
+                }
+            }
+            // contradictions (both orders of a pair fixed) appear as cycles when the heads are updated
+            return changed;
+        }
+
+        /** Builds in solution a complete solution respecting the selection, whose heads and tails are up to date, and
+         * returns its makespan. Tasks are scheduled one at a time as in Giffler and Thompson's algorithm : the machine
+         * of the task that can complete first is selected, and among the tasks that can start on it before this
+         * completion, the one with the largest tail is scheduled. The evaluator is left loaded with this solution. */
+        private int complete(boolean[] selection) {
+            for(int id = 0; id < size; id++) {
+                inDegree[id] = id % numTasks == 0 ? 0 : 1;
+                release[id] = 0;
+            }
+            for(int m = 0; m < numMachines; m++) {
+                int base = m * numJobs;
+                machineAvailable[m] = 0;
+                machineProgression[m] = 0;
+                for(int a = 0; a < numJobs; a++) {
+                    for(int b = 0; b < numJobs; b++) {
+                        if(selection[(base + a) * numJobs + b])
+                            inDegree[taskOf[b * numMachines + m]]++;
+                    }
+                }
+            }
+            int numReady = 0;
+            for(int id = 0; id < size; id++) {
+                if(inDegree[id] == 0)
+                    ready[numReady++] = id;
+            }
+            for(int scheduled = 0; scheduled < size; scheduled++) {
+                int earliestEnd = Integer.MAX_VALUE;
+                int machine = -1;
+                int first = -1;
+                for(int k = 0; k < numReady; k++) {
+                    int id = ready[k];
+                    int end = Math.max(release[id], machineAvailable[instance.machine(id)]) + instance.duration(id);
+                    if(end < earliestEnd) {
+                        earliestEnd = end;
+                        machine = instance.machine(id);
+                        first = k;
+                    }
+                }
+                // the task completing first is always a candidate, even when its duration is zero
+                int chosen = -1;
+                for(int k = 0; k < numReady; k++) {
+                    int id = ready[k];
+                    if(instance.machine(id) == machine && (Math.max(release[id], machineAvailable[machine]) < earliestEnd || k == first)
+                            && (chosen == -1 || tails[ready[k]] + instance.duration(id) > tails[ready[chosen]] + instance.duration(ready[chosen])))
+                        chosen = k;
+                }
+                int id = ready[chosen];
+                ready[chosen] = ready[--numReady];
+                int end = Math.max(release[id], machineAvailable[machine]) + instance.duration(id);
+                machineAvailable[machine] = end;
+                solution.jobs[machine * numJobs + machineProgression[machine]++] = id / numTasks;
+
+                if((id + 1) % numTasks != 0) {
+                    release[id + 1] = Math.max(release[id + 1], end);
+                    if(--inDegree[id + 1] == 0)
+                        ready[numReady++] = id + 1;
+                }
+                int row = (machine * numJobs + id / numTasks) * numJobs;
+                for(int b = 0; b < numJobs; b++) {
+                    if(selection[row + b]) {
+                        int next = taskOf[b * numMachines + machine];
+                        if(--inDegree[next] == 0)
+                            ready[numReady++] = next;
+                    }
+                }
+            }
+            return evaluator.load(solution);
+        }
+
+        /** Heads and tails in the graph of the job precedences and of the selection. Returns false if it has a cycle. */
+        private boolean updateHeadsAndTails(boolean[] selection) {
+            for(int id = 0; id < size; id++) {
+                inDegree[id] = id % numTasks == 0 ? 0 : 1;
+                heads[id] = 0;
+            }
+            for(int m = 0; m < numMachines; m++) {
+                int base = m * numJobs;
+                for(int a = 0; a < numJobs; a++) {
+                    for(int b = 0; b < numJobs; b++) {
+                        if(selection[(base + a) * numJobs + b])
+                            inDegree[taskOf[b * numMachines + m]]++;
+                    }
+                }
+            }
+            int queued = 0;
+            for(int id = 0; id < size; id++) {
+                if(inDegree[id] == 0)
+                    topologicalOrder[queued++] = id;
+            }
+            for(int done = 0; done < queued; done++) {
+                int id = topologicalOrder[done];
+                int end = heads[id] + instance.duration(id);
+                if((id + 1) % numTasks != 0) {
+                    heads[id + 1] = Math.max(heads[id + 1], end);
+                    if(--inDegree[id + 1] == 0)
+                        topologicalOrder[queued++] = id + 1;
+                }
+                int m = instance.machine(id);
+                int row = (m * numJobs + id / numTasks) * numJobs;
+                for(int b = 0; b < numJobs; b++) {
+                    if(selection[row + b]) {
+                        int next = taskOf[b * numMachines + m];
+                        heads[next] = Math.max(heads[next], end);
+                        if(--inDegree[next] == 0)
+                            topologicalOrder[queued++] = next;
+                    }
+                }
+            }
+            if(queued < size)
+                return false;
+            for(int k = size - 1; k >= 0; k--) {
+                int id = topologicalOrder[k];
+                int tail = 0;
+                if((id + 1) % numTasks != 0)
+                    tail = instance.duration(id + 1) + tails[id + 1];
+                int m = instance.machine(id);
+                int row = (m * numJobs + id / numTasks) * numJobs;
+                for(int b = 0; b < numJobs; b++) {
+                    if(selection[row + b]) {
+                        int next = taskOf[b * numMachines + m];
+                        tail = Math.max(tail, instance.duration(next) + tails[next]);
+                    }
+                }
+                tails[id] = tail;
+            }
+            return true;
+        }
+    }
+}
@@ -3,14 +3,12 @@ package jobshop.solvers;
 import jobshop.Instance;
 import jobshop.Result;
 import jobshop.Solver;
+import jobshop.encodings.CompactResourceOrder;
 import jobshop.encodings.ResourceOrder;
-import jobshop.encodings.Task;
 
-import java.sql.PreparedStatement;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 
 public class DescentSolver implements Solver {
 
@@ -26,7 +24,6 @@ public class DescentSolver implements Solver {
      * Represent the task sequence : [(0,2) (2,1)]
      *
      * */
-    public final int priorityMode;
     static class Block {
         /** machine on which the block is identified */
         final int machine;
@@ -42,9 +39,45 @@ public class DescentSolver implements Solver {
         }
     }
 
+    /** the first improving neighbor is applied, the neighbors being examined by increasing estimate */
+    public static final int FIRST_IMPROVEMENT = 0;
+    /** the best neighbor is applied */
+    public static final int STEEPEST = 1;
+    /** the first improving neighbor is applied, the neighbors being examined in a random order */
+    public static final int RANDOMIZED = 2;
+
+    /** solver building the initial solution */
+    private final Solver seed;
+    private final int mode;
+    /** Neighborhood.N5, N6 or N7 */
+    private final int neighborhood;
+    /** order of examination of the neighbors in RANDOMIZED mode, kept from one search to the next */
+    private final Random random;
+
     public DescentSolver(int priorityMode) {
-        this.priorityMode = priorityMode;
+        this(new GluttonousSolver(priorityMode));
+    }
+
+    /** First improvement descent starting from the solution of the given solver. */
+    public DescentSolver(Solver seed) {
+        this(seed, FIRST_IMPROVEMENT);
+    }
+
+    public DescentSolver(Solver seed, int mode) {
+        this(seed, mode, Neighborhood.N5);
     }
+
+    public DescentSolver(Solver seed, int mode, int neighborhood) {
+        this(seed, mode, neighborhood, 0);
+    }
+
+    public DescentSolver(Solver seed, int mode, int neighborhood, long randomSeed) {
+        this.seed = seed;
+        this.mode = mode;
+        this.neighborhood = neighborhood;
+        this.random = new Random(randomSeed);
+    }
+
     /**
      * Represents a swap of two tasks on the same machine in a ResourceOrder encoding.
      *
@@ -75,79 +108,84 @@ public class DescentSolver implements Solver {
         }
 
         /** Apply this swap on the given resource order, transforming it into a new solution. */
-        public void applyOn(ResourceOrder order) {
-            Task tmp = order.tasks[machine][t1];
-            order.tasks[machine][t1] = order.tasks[machine][t2];
-            order.tasks[machine][t2] = tmp;
+        public void applyOn(CompactResourceOrder order) {
+            order.swap(machine, t1, t2);
         }
     }
 
 
     @Override
     public Result solve(Instance instance, long deadline) {
-        GluttonousSolver solver = new GluttonousSolver(priorityMode);
-        solver.solve(instance, deadline);
-        ResourceOrder bestOrder = solver.sol;
-        int bestMakespan = bestOrder.toSchedule().makespan();
-        boolean continueDescent = true;
-        while(continueDescent) {
-            continueDescent = false;
-            List<Swap> swaps = new ArrayList<Swap>();
-            for(Block b : blocksOfCriticalPath(bestOrder)) {
-                swaps.addAll(neighbors(b));
-            }
+        int lowerBound = new LowerBounds(instance).value();
+        CompactResourceOrder start = new CompactResourceOrder(new ResourceOrder(seed.solve(instance, deadline).schedule));
+        CompactResourceOrder bestOrder = search(start, lowerBound, deadline);
+        int bestMakespan = new MoveEvaluator(instance).evaluate(bestOrder);
+        Result.ExitCause cause = bestMakespan <= lowerBound ? Result.ExitCause.ProvedOptimal : Result.ExitCause.NotProvedOptimal;
+        return new Result(instance, bestOrder.toSchedule(), cause, lowerBound);
+    }
+
+    /** Descent from the given solution, until a local optimum, the lower bound or the deadline is reached.
+     * Returns the best solution found, the start solution is not modified.
+     *
+     * The estimate of a swap (see MoveEvaluator) is a lower bound of the makespan of the neighbor : a swap is evaluated
+     * exactly only if its estimate is better than the makespan to beat. The estimate of an insertion of N6 and N7 is
+     * only an approximation : insertions are always evaluated exactly. Examined by increasing estimate, the first
+     * improving neighbor is usually among the first ones, and with N5 the scan stops at the first estimate that cannot
+     * improve. */
+    CompactResourceOrder search(CompactResourceOrder start, int lowerBound, long deadline) {
+        Instance instance = start.instance;
+        CompactResourceOrder current = start.clone();
+        // heads and tails of the current solution, used to estimate the neighbors
+        MoveEvaluator evaluator = new MoveEvaluator(instance);
+        // exact evaluation of the neighbors that may improve the current solution
+        MoveEvaluator neighborEvaluator = new MoveEvaluator(instance);
+        Neighborhood moves = new Neighborhood(instance, neighborhood);
 
-            ResourceOrder tmpOrder = bestOrder.clone();
-            for(Swap s : swaps) {
-                s.applyOn(tmpOrder);
-                int makespan = tmpOrder.toSchedule().makespan();
-                if(makespan < bestMakespan) {
-                    continueDescent = true;
-                    bestMakespan = makespan;
-                    bestOrder = tmpOrder.clone();
+        int makespan = evaluator.load(current);
+        // no neighbor can improve a solution reaching the lower bound
+        while(makespan > lowerBound && System.currentTimeMillis() < deadline) {
+            int numMoves = moves.generate(evaluator);
+            if(mode == RANDOMIZED)
+                moves.shuffle(random);
+            else
+                moves.sortByEstimate();
+
+            int bestMove = -1;
+            int bestMakespan = makespan;
+            for(int i = 0; i < numMoves; i++) {
+                int k = moves.move(i);
+                if(moves.estimates[k] >= bestMakespan && moves.isSwap(k)) {
+                    if(mode == RANDOMIZED || neighborhood != Neighborhood.N5)
+                        continue;
+                    // the next moves are swaps whose estimates are not better
+                    break;
+                }
+                moves.apply(k, current);
+                int neighborMakespan = neighborEvaluator.evaluate(current);
+                moves.undo(k, current);
+                if(neighborMakespan >= 0 && neighborMakespan < bestMakespan) {
+                    bestMove = k;
+                    bestMakespan = neighborMakespan;
+                    if(mode != STEEPEST)
+                        break;
                 }
-                s.applyOn(tmpOrder);
             }
+            if(bestMove < 0)
+                break;
+            moves.apply(bestMove, current);
+            makespan = evaluator.load(current);
         }
-        return new Result(instance, bestOrder.toSchedule(), Result.ExitCause.NotProvedOptimal);
+        return current;
     }
 
-    /** Returns a list of all blocks of the critical path. */
-    List<Block> blocksOfCriticalPath(ResourceOrder order) {
+    /** Returns a list of all blocks of the critical path of the solution last evaluated by the given evaluator. */
+    List<Block> blocksOfCriticalPath(MoveEvaluator evaluator) {
         List<Block> blocks = new ArrayList<>();
-        List<Task> criticalPath = order.toSchedule().criticalPath();
-        int machine = -1;
-        int firstTask = 0;
-        int consecutiveTasks = 0;
-        for(Task t : criticalPath) {
-            int m = order.instance.machine(t.job, t.task);
-            if(m != machine) {
-                if(consecutiveTasks >= 2) {
-                    blocks.add(new Block(machine, firstTask, firstTask + consecutiveTasks - 1));
-                }
-                machine = m;
-                firstTask = Arrays.asList(order.tasks[m]).indexOf(t);
-                consecutiveTasks = 1;
-            } else {
-                consecutiveTasks++;
-            }
-        }
-        if(consecutiveTasks >= 2) {
-            blocks.add(new Block(machine, firstTask, firstTask + consecutiveTasks - 1));
+        int numBlocks = evaluator.criticalBlocks();
+        for(int b = 0; b < numBlocks; b++) {
+            blocks.add(new Block(evaluator.blocks[3 * b], evaluator.blocks[3 * b + 1], evaluator.blocks[3 * b + 2]));
         }
         return blocks;
     }
 
-    /** For a given block, return the possible swaps for the Nowicki and Smutnicki neighborhood */
-    List<Swap> neighbors(Block block) {
-        List<Swap> neighbors = new LinkedList<>();
-        if(block.lastTask == block.firstTask + 1) {
-            neighbors.add(new Swap(block.machine, block.firstTask, block.lastTask));
-        } else {
-            neighbors.add(new Swap(block.machine, block.firstTask, block.firstTask + 1));
-            neighbors.add(new Swap(block.machine, block.lastTask - 1, block.lastTask));
-        }
-        return neighbors;
-    }
-
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+
+/** Priority rule of a list scheduling : among the tasks competing for a machine, the one with the smallest score is
+ * scheduled first, ties being broken by job number.
+ *
+ * Tasks are identified by an integer : job * numTasks + task.
+ * A rule is evaluated for every candidate of every decision : it must be cheap and must not allocate.
+ */
+@FunctionalInterface
+public interface DispatchRule {
+
+    /** Score of the task, whose job became ready at time ready : the end of its previous task, 0 for the first one. */
+    int score(Instance instance, int id, int ready);
+
+    /** Shortest processing time first. */
+    DispatchRule SPT = (instance, id, ready) -> instance.duration(id);
+    /** Longest processing time first. */
+    DispatchRule LPT = (instance, id, ready) -> -instance.duration(id);
+    /** Shortest remaining processing time of the job (including the task) first. */
+    DispatchRule SRPT = (instance, id, ready) -> remainingWork(instance, id);
+    /** Longest remaining processing time of the job (including the task) first. */
+    DispatchRule LRPT = (instance, id, ready) -> -remainingWork(instance, id);
+    /** Most work remaining in the job after the task first. */
+    DispatchRule MWKR = (instance, id, ready) -> instance.duration(id) - remainingWork(instance, id);
+    /** First in first out : the task of the job waiting for the longest time first. In a non-delay decision all the
+     * competing tasks start at the same time, they are ordered by the end of their previous task. */
+    DispatchRule FIFO = (instance, id, ready) -> ready;
+
+    /** Weighted sum of the scores of several rules. */
+    static DispatchRule weighted(int[] weights, DispatchRule... rules) {
+        if(weights.length != rules.length)
+            throw new RuntimeException("One weight is needed for each rule");
+        return (instance, id, ready) -> {
+            int score = 0;
+            for(int k = 0; k < rules.length; k++)
+                score += weights[k] * rules[k].score(instance, id, ready);
+            return score;
+        };
+    }
+
+    static int remainingWork(Instance instance, int id) {
+        return instance.remainingWork(id / instance.numTasks, id % instance.numTasks);
+    }
+}
@@ -0,0 +1,332 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.encodings.CompactResourceOrder;
+import jobshop.encodings.JobNumbers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** Steady-state genetic algorithm over the job numbers representation (permutations with repetition).
+ *
+ * A chromosome lists the jobs, the k^th occurrence of a job standing for its k^th task, and is decoded into the
+ * semi-active schedule executing the tasks in this order. At each generation, a batch of children is bred from parents
+ * chosen by binary tournament (crossover, then mutation with some probability) and each child replaces the worst
+ * individual of the population if it is better and if no individual has the same makespan, which keeps the population
+ * diverse. With memetic iterations, each child is improved by a short TSAB search on its resource order before being
+ * evaluated (Lamarckian : the chromosome is replaced by the improved solution).
+ * The children of a batch are bred, improved and evaluated in parallel, the population is only read meanwhile.
+ */
+public class GeneticSolver implements Solver {
+
+    /** Job-based order crossover (Ono et al. 1996) : the genes of a random subset of the jobs keep their positions in
+     * the first parent, the other positions receive the genes of the other jobs in their order in the second parent. */
+    public static final int JOX = 0;
+    /** Generalized order crossover (Bierwirth 1995) : a substring of the second parent is inserted in the first parent
+     * at the position of its first gene, the genes of the substring being removed from the first parent. */
+    public static final int GOX = 1;
+
+    /** number of children bred by each thread at each generation */
+    private static final int CHILDREN_PER_THREAD = 4;
+
+    private final int populationSize;
+    private final int crossover;
+    /** probability of mutating a child */
+    private final double mutationRate;
+    /** number of TSAB iterations applied to each child, 0 for a plain genetic algorithm */
+    private final int memeticIterations;
+    private final int numThreads;
+
+    public GeneticSolver(int populationSize, int crossover, double mutationRate, int memeticIterations, int numThreads) {
+        this.populationSize = populationSize;
+        this.crossover = crossover;
+        this.mutationRate = mutationRate;
+        this.memeticIterations = memeticIterations;
+        this.numThreads = numThreads;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        int lowerBound = new LowerBounds(instance).value();
+        Population population = new Population(populationSize);
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Breeder> breeders = new ArrayList<>();
+            for(int w = 0; w < numThreads; w++)
+                breeders.add(new Breeder(instance, population, w, lowerBound, deadline));
+
+            // initial population : random chromosomes, evaluated in parallel as well
+            List<Callable<Void>> initialization = new ArrayList<>();
+            for(Breeder breeder : breeders)
+                initialization.add(breeder::initialize);
+            invokeAll(executor, initialization);
+            population.sort();
+
+            while(population.best().makespan > lowerBound && System.currentTimeMillis() < deadline) {
+                invokeAll(executor, new ArrayList<>(breeders));
+                for(Breeder breeder : breeders) {
+                    for(Individual child : breeder.children)
+                        population.insert(child);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Individual best = population.best();
+        JobNumbers solution = new JobNumbers(instance);
+        for(int job : best.jobs)
+            solution.jobs[solution.nextToSet++] = job;
+        Result.ExitCause cause = best.makespan <= lowerBound ? Result.ExitCause.ProvedOptimal : Result.ExitCause.Timeout;
+        return new Result(instance, solution.toSchedule(), cause, lowerBound);
+    }
+
+    private static void invokeAll(ExecutorService executor, List<Callable<Void>> tasks) {
+        try {
+            for(Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("A generation of the genetic algorithm failed", e.getCause());
+        }
+    }
+
+    /** A chromosome and the makespan of its schedule. */
+    static class Individual {
+        final int[] jobs;
+        final int makespan;
+
+        Individual(int[] jobs, int makespan) {
+            this.jobs = jobs;
+            this.makespan = makespan;
+        }
+    }
+
+    /** Individuals sorted by increasing makespan. Only modified between the batches of children. */
+    static class Population {
+        private final Individual[] individuals;
+        private int size = 0;
+
+        Population(int capacity) {
+            individuals = new Individual[capacity];
+        }
+
+        Individual best() {
+            return individuals[0];
+        }
+
+        Individual get(int i) {
+            return individuals[i];
+        }
+
+        int size() {
+            return size;
+        }
+
+        /** Adds an individual of the initial population, sort() must be called once all are added. */
+        synchronized void add(Individual individual) {
+            individuals[size++] = individual;
+        }
+
+        void sort() {
+            Arrays.sort(individuals, 0, size, (i1, i2) -> Integer.compare(i1.makespan, i2.makespan));
+        }
+
+        /** Replaces the worst individual by the given one if it is better and if its makespan is new. */
+        void insert(Individual child) {
+            if(child.makespan >= individuals[size - 1].makespan)
+                return;
+            // insertion position by binary search, the last individual is dropped
+            int low = 0, high = size - 1;
+            while(low < high) {
+                int middle = (low + high) / 2;
+                if(individuals[middle].makespan < child.makespan)
+                    low = middle + 1;
+                else
+                    high = middle;
+            }
+            if(individuals[low].makespan == child.makespan)
+                return;
+            System.arraycopy(individuals, low, individuals, low + 1, size - 1 - low);
+            individuals[low] = child;
+        }
+    }
+
+    /** Work of a thread : breeding, improvement and evaluation of its share of the children of each generation.
+     * Each breeder has its own random generator and buffers. */
+    class Breeder implements Callable<Void> {
+        private final Instance instance;
+        private final Population population;
+        private final int worker;
+        private final int lowerBound;
+        private final long deadline;
+        private final Random random;
+        private final TSABSolver localSearch;
+        /** children of the last generation */
+        final List<Individual> children = new ArrayList<>();
+
+        /** decoding buffers */
+        private final int[] nextTask;
+        private final int[] jobEnd;
+        private final int[] machineEnd;
+        /** crossover buffers */
+        private final boolean[] kept;
+        private final boolean[] marked;
+        private final int[] occurrence;
+
+        Breeder(Instance instance, Population population, int worker, int lowerBound, long deadline) {
+            this.instance = instance;
+            this.population = population;
+            this.worker = worker;
+            this.lowerBound = lowerBound;
+            this.deadline = deadline;
+            random = new Random(worker);
+            localSearch = new TSABSolver(memeticIterations, memeticIterations, TSABSolver.N6, new BasicSolver());
+            nextTask = new int[instance.numJobs];
+            jobEnd = new int[instance.numJobs];
+            machineEnd = new int[instance.numMachines];
+            kept = new boolean[instance.numJobs];
+            marked = new boolean[instance.numJobs * instance.numTasks];
+            occurrence = new int[instance.numJobs * instance.numTasks];
+        }
+
+        /** Adds to the population the random individuals of index worker modulo numThreads. */
+        Void initialize() {
+            for(int i = worker; i < populationSize; i += numThreads) {
+                int[] jobs = new int[instance.numJobs * instance.numTasks];
+                for(int k = 0; k < jobs.length; k++)
+                    jobs[k] = k / instance.numTasks;
+                for(int k = jobs.length - 1; k > 0; k--) {
+                    int other = random.nextInt(k + 1);
+                    int tmp = jobs[k];
+                    jobs[k] = jobs[other];
+                    jobs[other] = tmp;
+                }
+                population.add(evaluate(jobs));
+            }
+            return null;
+        }
+
+        /** Breeds the children of one generation. */
+        @Override
+        public Void call() {
+            children.clear();
+            for(int c = 0; c < CHILDREN_PER_THREAD && System.currentTimeMillis() < deadline; c++) {
+                int[] first = tournament().jobs;
+                int[] second = tournament().jobs;
+                int[] child = crossover == JOX ? jox(first, second) : gox(first, second);
+                if(random.nextDouble() < mutationRate)
+                    mutate(child);
+                children.add(evaluate(child));
+            }
+            return null;
+        }
+
+        /** Binary tournament : the best of two random individuals. */
+        private Individual tournament() {
+            Individual i1 = population.get(random.nextInt(population.size()));
+            Individual i2 = population.get(random.nextInt(population.size()));
+            return i1.makespan <= i2.makespan ? i1 : i2;
+        }
+
+        int[] jox(int[] first, int[] second) {
+            int[] child = new int[first.length];
+            for(int j = 0; j < instance.numJobs; j++)
+                kept[j] = random.nextBoolean();
+            int next = 0;
+            for(int k = 0; k < first.length; k++) {
+                if(kept[first[k]]) {
+                    child[k] = first[k];
+                    continue;
+                }
+                // next gene of the second parent whose job is not kept
+                while(kept[second[next]])
+                    next++;
+                child[k] = second[next++];
+            }
+            return child;
+        }
+
+        int[] gox(int[] first, int[] second) {
+            int length = first.length;
+            // substring of the second parent, of a third to a half of the chromosome (Bierwirth)
+            int size = Math.max(1, length / 3 + random.nextInt(length / 6 + 1));
+            int start = random.nextInt(length - size + 1);
+            // genes are identified by (job, occurrence of the job) : job * numTasks + occurrence
+            Arrays.fill(nextTask, 0);
+            for(int k = 0; k < length; k++)
+                occurrence[k] = second[k] * instance.numTasks + nextTask[second[k]]++;
+            Arrays.fill(marked, false);
+            for(int k = start; k < start + size; k++)
+                marked[occurrence[k]] = true;
+            int firstGene = occurrence[start];
+
+            int[] child = new int[length];
+            int next = 0;
+            Arrays.fill(nextTask, 0);
+            for(int k = 0; k < length; k++) {
+                int gene = first[k] * instance.numTasks + nextTask[first[k]]++;
+                if(gene == firstGene) {
+                    System.arraycopy(second, start, child, next, size);
+                    next += size;
+                }
+                if(!marked[gene])
+                    child[next++] = first[k];
+            }
+            return child;
+        }
+
+        /** Moves a random gene to another random position. */
+        private void mutate(int[] jobs) {
+            int from = random.nextInt(jobs.length);
+            int to = random.nextInt(jobs.length);
+            int job = jobs[from];
+            if(from < to)
+                System.arraycopy(jobs, from + 1, jobs, from, to - from);
+            else
+                System.arraycopy(jobs, to, jobs, to + 1, from - to);
+            jobs[to] = job;
+        }
+
+        /** Evaluates the chromosome, after improving it by local search for a memetic algorithm. */
+        private Individual evaluate(int[] jobs) {
+            if(memeticIterations > 0) {
+                JobNumbers chromosome = new JobNumbers(instance);
+                System.arraycopy(jobs, 0, chromosome.jobs, 0, jobs.length);
+                chromosome.nextToSet = jobs.length;
+                CompactResourceOrder improved = localSearch.search(new CompactResourceOrder(chromosome), lowerBound, deadline);
+                jobs = improved.toJobNumbers().jobs;
+            }
+            return new Individual(jobs, makespan(jobs));
+        }
+
+        /** Makespan of the semi-active schedule of the chromosome : each task starts as soon as its job and its machine
+         * are free, in the order of the chromosome. */
+        private int makespan(int[] jobs) {
+            Arrays.fill(nextTask, 0);
+            Arrays.fill(jobEnd, 0);
+            Arrays.fill(machineEnd, 0);
+            int makespan = 0;
+            for(int job : jobs) {
+                int id = job * instance.numTasks + nextTask[job]++;
+                int machine = instance.machine(id);
+                int end = Math.max(jobEnd[job], machineEnd[machine]) + instance.duration(id);
+                jobEnd[job] = end;
+                machineEnd[machine] = end;
+                makespan = Math.max(makespan, end);
+            }
+            return makespan;
+        }
+    }
+}
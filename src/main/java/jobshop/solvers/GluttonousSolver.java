@@ -2,14 +2,19 @@ package jobshop.solvers;
 
 import jobshop.Instance;
 import jobshop.Result;
+import jobshop.Schedule;
 import jobshop.Solver;
-import jobshop.encodings.ResourceOrder;
-import jobshop.encodings.Task;
+import jobshop.encodings.CompactResourceOrder;
 
-import java.util.Comparator;
-import java.util.PriorityQueue;
-import java.util.Queue;
+import java.util.Arrays;
 
+/** List scheduling : the tasks are scheduled one at a time, choosing among the next tasks of the jobs with a priority
+ * rule.
+ *  - non-delay schedules : the task chosen is the best one among those that can start the earliest, so that no machine
+ *    is left idle while a task could start on it,
+ *  - active schedules (Giffler and Thompson 1960) : the machine m of the task that can end the earliest (at time c) is
+ *    considered and the task chosen is the best one among the tasks of m that can start before c.
+ */
 public class GluttonousSolver implements Solver {
 
     public static final int PRIORITY_SPT = 0;
@@ -17,146 +22,261 @@ public class GluttonousSolver implements Solver {
     public static final int PRIORITY_SRPT = 2;
     public static final int PRIORITY_LRPT = 3;
 
-    public final int priorityMode;
-    public ResourceOrder sol;
+    private final DispatchRule rule;
+    private final boolean active;
 
+    /** Non-delay schedule with one of the PRIORITY_* rules. */
     public GluttonousSolver(int priorityMode) {
-        this.priorityMode = priorityMode;
+        this(rule(priorityMode), false);
+    }
+
+    public GluttonousSolver(DispatchRule rule, boolean active) {
+        this.rule = rule;
+        this.active = active;
+    }
+
+    static DispatchRule rule(int priorityMode) {
+        switch(priorityMode) {
+            case PRIORITY_SPT:
+                return DispatchRule.SPT;
+            case PRIORITY_LPT:
+                return DispatchRule.LPT;
+            case PRIORITY_SRPT:
+                return DispatchRule.SRPT;
+            case PRIORITY_LRPT:
+                return DispatchRule.LRPT;
+            default:
+                throw new RuntimeException("Unknown priority mode : " + priorityMode);
+        }
     }
 
     @Override
     public Result solve(Instance instance, long deadline) {
-        sol = new ResourceOrder(instance);
-        int time = 0;
-        int[][] startTimes = new int[instance.numJobs][instance.numTasks];
-
-        // for each job, the first task that has not yet been scheduled
-        int[] jobProgression = new int[instance.numJobs];
+        // the scheduler is local : the same solver may be used by several threads at once
+        ListScheduler scheduler = new ListScheduler(instance);
+        scheduler.schedule(rule, active);
+        //  algorithme glouton donc sauf cas particulier on est pas sûr que c'est optimal
+        return new Result(instance, scheduler.toSchedule(), Result.ExitCause.NotProvedOptimal);
+    }
 
-        // for each machine, the number of tasks executed
-        int[] machineProgression = new int[instance.numMachines];
+    /** Builds list schedules of an instance. Buffers are allocated once : a scheduler can build many schedules without
+     * allocating, but it is not thread safe.
+     *
+     * The candidates are the next tasks of the jobs. They are kept in a binary heap of primitive longs ordered by their
+     * earliest start (non-delay) or end (active) time, then by task. This time can only increase when other tasks are
+     * scheduled : entries are updated lazily, when they reach the top of the heap. For active schedules, the
+     * candidates of each machine are also listed. The tasks competing for a decision are gathered in conflict[] and
+     * the one scheduled is given by choose(), which can be overridden to randomize the construction.
+     */
+    static class ListScheduler {
+        final Instance instance;
+        private final int numJobs;
+        private final int numTasks;
+        /** solution built by the last call to schedule() */
+        final CompactResourceOrder order;
+        /** start times of the last schedule, indexed by job * numTasks + task */
+        final int[] startTimes;
+        /** critical predecessors of the last schedule, see Schedule.criticalPathIds() */
+        final int[] criticalPredecessors;
 
-        // for each machine, true if processing a task
-        boolean[] machineBusy = new boolean[instance.numMachines];
+        private final int[] nextTask;
+        private final int[] jobEnd;
+        private final int[] machineEnd;
+        private final int[] machineLast;
+        private final int[] machineProgression;
+        /** heap of candidates : time in the high bits, task in the low bits */
+        private final long[] heap;
+        private int heapSize;
+        /** machineCandidates[m * numJobs + k] for k < candidateCount[m] are the jobs whose next task is on machine m */
+        private final int[] machineCandidates;
+        private final int[] candidateCount;
+        /** jobs competing for the current decision, and their scores */
+        final int[] conflict;
+        final int[] scores;
 
-        class TaskInfo {
-            int endTime, job, task, machine, duration, remainingDuration;
+        ListScheduler(Instance instance) {
+            this.instance = instance;
+            numJobs = instance.numJobs;
+            numTasks = instance.numTasks;
+            order = new CompactResourceOrder(instance);
+            startTimes = new int[numJobs * numTasks];
+            criticalPredecessors = new int[numJobs * numTasks];
+            nextTask = new int[numJobs];
+            jobEnd = new int[numJobs];
+            machineEnd = new int[instance.numMachines];
+            machineLast = new int[instance.numMachines];
+            machineProgression = new int[instance.numMachines];
+            // one entry per candidate, plus the entries of the tasks already scheduled not popped yet
+            heap = new long[numJobs + numJobs * numTasks];
+            machineCandidates = new int[instance.numMachines * numJobs];
+            candidateCount = new int[instance.numMachines];
+            conflict = new int[numJobs];
+            scores = new int[numJobs];
         }
-        Queue<TaskInfo> runningTasks = new PriorityQueue<>(new Comparator<TaskInfo>() {
-            @Override
-            public int compare(TaskInfo o1, TaskInfo o2) {
-                return Integer.compare(o1.endTime, o2.endTime);
+
+        /** Builds a non-delay or an active schedule with the given rule and returns its makespan. */
+        int schedule(DispatchRule rule, boolean active) {
+            Arrays.fill(nextTask, 0);
+            Arrays.fill(jobEnd, 0);
+            Arrays.fill(machineEnd, 0);
+            Arrays.fill(machineLast, -1);
+            Arrays.fill(machineProgression, 0);
+            Arrays.fill(candidateCount, 0);
+            heapSize = 0;
+            for(int j = 0; j < numJobs; j++)
+                addCandidate(j, active);
+
+            int makespan = 0;
+            for(int step = 0; step < startTimes.length; step++) {
+                int job = active ? activeDecision(rule) : nonDelayDecision(rule);
+
+                int id = job * numTasks + nextTask[job]++;
+                int machine = instance.machine(id);
+                int start = Math.max(jobEnd[job], machineEnd[machine]);
+                startTimes[id] = start;
+                criticalPredecessors[id] = start == 0 ? -1 : start == jobEnd[job] ? id - 1 : machineLast[machine];
+                jobEnd[job] = machineEnd[machine] = start + instance.duration(id);
+                machineLast[machine] = id;
+                order.jobs[machine * numJobs + machineProgression[machine]++] = job;
+                makespan = Math.max(makespan, jobEnd[job]);
+                if(active)
+                    removeCandidate(machine, job);
+                if(nextTask[job] < numTasks)
+                    addCandidate(job, active);
             }
-        });
-        Comparator<TaskInfo> comp = new Comparator<TaskInfo>() {
-            @Override
-            public int compare(TaskInfo o1, TaskInfo o2) {
-                switch(priorityMode) {
-                    case PRIORITY_SPT:
-                        return Integer.compare(o1.duration, o2.duration);
-                    case PRIORITY_LPT:
-                        return -Integer.compare(o1.duration, o2.duration);
-                    case PRIORITY_SRPT:
-                        return Integer.compare(o1.remainingDuration, o2.remainingDuration);
-                    case PRIORITY_LRPT:
-                        return -Integer.compare(o1.remainingDuration, o2.remainingDuration);
+            return makespan;
+        }
 
+        /** Non-delay decision : the best of the candidates that can start the earliest. */
+        private int nonDelayDecision(DispatchRule rule) {
+            int time = validTop(false);
+            int count = 0;
+            while(heapSize > 0 && (int) (heap[0] >>> 32) == time) {
+                int id = (int) heap[0];
+                pop();
+                int job = id / numTasks;
+                if(id != job * numTasks + nextTask[job])
+                    continue;
+                int start = time(job, false);
+                if(start != time) {
+                    push(start, id);
+                    continue;
                 }
-                return 0;
+                conflict[count] = job;
+                scores[count] = rule.score(instance, id, jobEnd[job]);
+                count++;
             }
-        };
-        Queue<TaskInfo>[] candidateQueue = new Queue[] {new PriorityQueue(comp), new PriorityQueue(comp)};
-
-        int[] remainingDurations = new int[instance.numJobs];
-        if(priorityMode == PRIORITY_SRPT || priorityMode == PRIORITY_LRPT) {
-            for (int j = 0; j < instance.numJobs; j++) {
-                for (int i = 0; i < instance.numTasks; i++) {
-                    remainingDurations[j] += instance.duration(j, i);
+            int chosen = choose(count);
+            // the other candidates go back in the heap, the chosen one gets its next task
+            for(int k = 0; k < count; k++) {
+                if(k != chosen)
+                    push(time, conflict[k] * numTasks + nextTask[conflict[k]]);
+            }
+            return conflict[chosen];
+        }
+
+        /** Active decision (Giffler and Thompson) : the best of the candidates of the machine of the task that can end
+         * the earliest, among those that can start before this end. */
+        private int activeDecision(DispatchRule rule) {
+            int end = validTop(true);
+            int first = (int) heap[0] / numTasks;
+            int machine = instance.machine(first * numTasks + nextTask[first]);
+            int count = 0;
+            for(int k = 0; k < candidateCount[machine]; k++) {
+                int job = machineCandidates[machine * numJobs + k];
+                int start = time(job, false);
+                if(start < end || job == first) {
+                    conflict[count] = job;
+                    scores[count] = rule.score(instance, job * numTasks + nextTask[job], jobEnd[job]);
+                    count++;
                 }
             }
+            return conflict[choose(count)];
+        }
+
+        /** Index in conflict of the task to schedule among the given number of competing tasks : the one with the
+         * smallest score, the one of the smallest job in case of ties. */
+        int choose(int count) {
+            int best = 0;
+            for(int k = 1; k < count; k++) {
+                if(scores[k] < scores[best] || (scores[k] == scores[best] && conflict[k] < conflict[best]))
+                    best = k;
+            }
+            return best;
         }
-        TaskInfo[] finishingTasks = new TaskInfo[instance.numMachines];
-        TaskInfo[][] pendingTasks = new TaskInfo[instance.numMachines][instance.numJobs];
-        int[] pendingTasksIndices = new int[instance.numMachines];
-        int finishingTaskIndex = 0;
-
-        // ajout des premières tâches de chaque job à la queue des tâches candidates
-        for(int j = 0; j < instance.numJobs; j++) {
-            TaskInfo task = new TaskInfo();
-            task.machine = instance.machine(j, 0);
-            task.job = j;
-            task.task = 0;
-            task.duration = instance.duration(j, 0);
-            task.remainingDuration = remainingDurations[task.machine];
-            candidateQueue[0].offer(task);
+
+        /** Schedule built by the last call to schedule(). */
+        Schedule toSchedule() {
+            return new Schedule(instance, startTimes, criticalPredecessors.clone());
         }
 
-        // le sujet à changé sauf que j'avais déja fait tout ça donc je garde comme ça
-
-        while (true) {
-            // lancement des tâches par priorité
-            TaskInfo task;
-            while((task = candidateQueue[0].poll()) != null) {
-                if(!machineBusy[task.machine]) {
-                    machineBusy[task.machine] = true;
-                    task.endTime = time + task.duration;
-                    runningTasks.offer(task);
-                    sol.tasks[task.machine][machineProgression[task.machine]++] = new Task(task.job, task.task);
-                } else {
-                    // cette tâche était candidate mais une tâche plus prioritaire lui est passée devant
-                    // donc on la met candidate pour la prochaine phase (on aurait pu la laisser dans la même structure si on avait
-                    // utilisé un arbre binaire pour trier les prioritées, mais la priority queue est implémentée avec un binary
-                    // heap qui est généralement plus rapide donc j'ai fait le choix d'utiliser 2 binary heap
-                    candidateQueue[1].offer(task);
-                }
+        /** Earliest start (or end) time of the next task of the job. */
+        private int time(int job, boolean end) {
+            int id = job * numTasks + nextTask[job];
+            int start = Math.max(jobEnd[job], machineEnd[instance.machine(id)]);
+            return end ? start + instance.duration(id) : start;
+        }
+
+        private void addCandidate(int job, boolean active) {
+            int id = job * numTasks + nextTask[job];
+            push(time(job, active), id);
+            if(active) {
+                int machine = instance.machine(id);
+                machineCandidates[machine * numJobs + candidateCount[machine]++] = job;
             }
+        }
 
-            // swap des candidate queues
-            Queue<TaskInfo> old = candidateQueue[0];
-            candidateQueue[0] = candidateQueue[1];
-            candidateQueue[1] = old;
-
-            if(runningTasks.isEmpty())
-                break;
-
-            // libération des machines qui vienent de finir leur tâche
-            time = runningTasks.peek().endTime;
-            do {
-                task = runningTasks.poll();
-                machineBusy[task.machine] = false;
-                while(pendingTasksIndices[task.machine] > 0) {
-                    // toutes les tâches qui étaient en attente sur cette machine sont maintenant candidates
-                    TaskInfo pendingTask = pendingTasks[task.machine][--pendingTasksIndices[task.machine]];
-                    candidateQueue[0].offer(pendingTask);
+        private void removeCandidate(int machine, int job) {
+            int offset = machine * numJobs;
+            for(int k = 0; k < candidateCount[machine]; k++) {
+                if(machineCandidates[offset + k] == job) {
+                    machineCandidates[offset + k] = machineCandidates[offset + --candidateCount[machine]];
+                    return;
                 }
-                remainingDurations[task.machine] -= task.duration;
-                jobProgression[task.job]++;
-                finishingTasks[finishingTaskIndex++] = task;
-            } while((task = runningTasks.peek()) != null && task.endTime == time);
-
-            // ajout des tâches candidates (on passe par un buffer car si on le faisait directement on ne respecterait pas l'heuristique)
-            // (c'est plus efficace de regarder seulement les tâches suivantes dans le job plûtot que de tout regarder)
-            while(finishingTaskIndex > 0) {
-                task = finishingTasks[--finishingTaskIndex];
-                if(task.task < instance.numTasks - 1) {
-                    int m = instance.machine(task.job, task.task + 1);
-                    TaskInfo newTask = new TaskInfo();
-                    newTask.machine = m;
-                    newTask.job = task.job;
-                    newTask.task = task.task + 1;
-                    newTask.duration = instance.duration(newTask.job, newTask.task);
-                    newTask.remainingDuration = remainingDurations[newTask.machine];
-                    if(!machineBusy[m]) {
-                        candidateQueue[0].offer(newTask);
-                    } else {
-                        // la tâche n'est pas candidate mais elle le sera dès que la machine m sera libérée
-                        pendingTasks[m][pendingTasksIndices[m]++] = newTask;
-                    }
+            }
+        }
+
+        /** Updates the entries at the top of the heap until the top one is up to date, and returns its time. Entries
+         * of tasks already scheduled are dropped. */
+        private int validTop(boolean active) {
+            while(true) {
+                int id = (int) heap[0];
+                int job = id / numTasks;
+                if(nextTask[job] == numTasks || id != job * numTasks + nextTask[job]) {
+                    pop();
+                    continue;
                 }
+                int time = time(job, active);
+                if(time == (int) (heap[0] >>> 32))
+                    return time;
+                pop();
+                push(time, id);
             }
         }
 
-        //  algorithme glouton donc sauf cas particulier on est pas sûr que c'est optimal
-        return new Result(instance, sol.toSchedule(), Result.ExitCause.NotProvedOptimal);
+        private void push(int time, int id) {
+            long entry = ((long) time << 32) | id;
+            int i = heapSize++;
+            while(i > 0 && heap[(i - 1) / 2] > entry) {
+                heap[i] = heap[(i - 1) / 2];
+                i = (i - 1) / 2;
+            }
+            heap[i] = entry;
+        }
+
+        private void pop() {
+            long last = heap[--heapSize];
+            int i = 0;
+            while(2 * i + 1 < heapSize) {
+                int child = 2 * i + 1;
+                if(child + 1 < heapSize && heap[child + 1] < heap[child])
+                    child++;
+                if(heap[child] >= last)
+                    break;
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = last;
+        }
     }
 }
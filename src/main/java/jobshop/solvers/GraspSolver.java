@@ -0,0 +1,119 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.encodings.CompactResourceOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** Greedy randomized adaptive search procedure (Feo and Resende 1995).
+ *
+ * Each iteration builds a list schedule (see GluttonousSolver) in which every decision picks a random task of the
+ * restricted candidate list : the competing tasks whose score is at most min + alpha (max - min). With alpha = 0 the
+ * construction is the greedy one, with alpha = 1 it is purely random. The schedule is then improved by descent.
+ * Workers repeat these iterations in parallel until the deadline, each with its own random generator, and the best
+ * solution is shared between them.
+ */
+public class GraspSolver implements Solver {
+
+    private final DispatchRule rule;
+    /** true for active (Giffler and Thompson) constructions, false for non-delay ones */
+    private final boolean active;
+    /** greediness of the restricted candidate list, between 0 (greedy) and 1 (random) */
+    private final double alpha;
+    private final int numThreads;
+
+    public GraspSolver(DispatchRule rule, boolean active, double alpha, int numThreads) {
+        this.rule = rule;
+        this.active = active;
+        this.alpha = alpha;
+        this.numThreads = numThreads;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        SharedBest best = new SharedBest();
+        int lowerBound = new LowerBounds(instance).value();
+        List<Callable<Void>> workers = new ArrayList<>();
+        for(int w = 0; w < numThreads; w++) {
+            final int worker = w;
+            workers.add(() -> {
+                work(instance, worker, best, lowerBound, deadline);
+                return null;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            for(Future<Void> future : executor.invokeAll(workers)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("A GRASP iteration failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        Result.ExitCause cause = best.makespan() <= lowerBound ? Result.ExitCause.ProvedOptimal : Result.ExitCause.Timeout;
+        return new Result(instance, best.get().order.toSchedule(), cause, lowerBound);
+    }
+
+    /** Loop of a worker : randomized construction, descent, publication of the result, until the deadline or until a
+     * solution reaches the lower bound. The first construction of worker 0 is the greedy one. */
+    private void work(Instance instance, int worker, SharedBest best, int lowerBound, long deadline) {
+        RandomizedScheduler scheduler = new RandomizedScheduler(instance, new Random(worker));
+        DescentSolver descent = new DescentSolver(new BasicSolver());
+        MoveEvaluator evaluator = new MoveEvaluator(instance);
+        scheduler.alpha = worker == 0 ? 0 : alpha;
+
+        do {
+            scheduler.schedule(rule, active);
+            scheduler.alpha = alpha;
+            CompactResourceOrder found = descent.search(scheduler.order, lowerBound, deadline);
+            best.offer(found, evaluator.evaluate(found));
+        } while(best.makespan() > lowerBound && System.currentTimeMillis() < deadline);
+    }
+
+    /** List scheduler choosing uniformly among the tasks of the restricted candidate list. */
+    static class RandomizedScheduler extends GluttonousSolver.ListScheduler {
+        private final Random random;
+        double alpha;
+
+        RandomizedScheduler(Instance instance, Random random) {
+            super(instance);
+            this.random = random;
+        }
+
+        @Override
+        int choose(int count) {
+            if(alpha == 0)
+                return super.choose(count);
+            int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+            for(int k = 0; k < count; k++) {
+                min = Math.min(min, scores[k]);
+                max = Math.max(max, scores[k]);
+            }
+            long threshold = min + (long) Math.floor(alpha * ((long) max - min));
+            int size = 0;
+            for(int k = 0; k < count; k++) {
+                if(scores[k] <= threshold)
+                    size++;
+            }
+            // the rank-th task of the list
+            int rank = random.nextInt(size);
+            for(int k = 0; ; k++) {
+                if(scores[k] <= threshold && rank-- == 0)
+                    return k;
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.encodings.CompactResourceOrder;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.List;
+import java.util.Random;
+
+/** Iterated local search with variable kick strength, in the manner of a basic variable neighborhood search.
+ *
+ * The current solution is a local optimum of DescentSolver. Each iteration applies a kick of strength k to it (k random
+ * perturbations) and descends from the result. The new local optimum replaces the current one if it is not worse, and
+ * k is reset to 1 if it is strictly better. Otherwise k is increased, up to maxStrength after which it goes back to 1.
+ * A perturbation is one of :
+ *  - a swap of two adjacent tasks at a random position of a random machine, critical or not,
+ *  - the move of a random task of a critical block to the beginning or to the end of the block,
+ *  - a random shuffle of a subsequence of k + 1 tasks of a random machine.
+ * Perturbations creating a cycle are undone. Only three solutions are kept, so the memory is much lower than the one of
+ * the taboo searches.
+ */
+public class IteratedLocalSearchSolver implements Solver {
+
+    /** maximum number of perturbations of a kick */
+    private final int maxStrength;
+    /** solver building the initial solution */
+    private final Solver seed;
+    private final DescentSolver descent;
+
+    public IteratedLocalSearchSolver(int maxStrength, Solver seed) {
+        this.maxStrength = maxStrength;
+        this.seed = seed;
+        this.descent = new DescentSolver(seed, DescentSolver.FIRST_IMPROVEMENT);
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        int lowerBound = new LowerBounds(instance).value();
+        Random random = new Random(0);
+        Kicker kicker = new Kicker(instance, random);
+        MoveEvaluator evaluator = new MoveEvaluator(instance);
+
+        CompactResourceOrder start = new CompactResourceOrder(new ResourceOrder(seed.solve(instance, deadline).schedule));
+        CompactResourceOrder current = descent.search(start, lowerBound, deadline);
+        int makespan = evaluator.evaluate(current);
+        CompactResourceOrder best = current.clone();
+        int bestMakespan = makespan;
+        CompactResourceOrder kicked = current.clone();
+
+        int strength = 1;
+        while(bestMakespan > lowerBound && System.currentTimeMillis() < deadline) {
+            kicked.copyFrom(current);
+            kicker.kick(kicked, strength);
+            CompactResourceOrder found = descent.search(kicked, lowerBound, deadline);
+            int foundMakespan = evaluator.evaluate(found);
+            strength = nextStrength(strength, foundMakespan < makespan);
+            if(foundMakespan <= makespan) {
+                current = found;
+                makespan = foundMakespan;
+            }
+            if(makespan < bestMakespan) {
+                best.copyFrom(current);
+                bestMakespan = makespan;
+            }
+        }
+        Result.ExitCause cause = bestMakespan <= lowerBound ? Result.ExitCause.ProvedOptimal : Result.ExitCause.Timeout;
+        return new Result(instance, best.toSchedule(), cause, lowerBound);
+    }
+
+    /** Strength of the next kick : back to 1 after an improvement, increased otherwise, up to maxStrength after which
+     * it goes back to 1. */
+    int nextStrength(int strength, boolean improved) {
+        return improved ? 1 : strength % maxStrength + 1;
+    }
+
+    /** Random perturbations of a solution, each keeping it feasible. */
+    class Kicker {
+        private final Instance instance;
+        private final Random random;
+        private final MoveEvaluator evaluator;
+        /** tasks of a shuffled subsequence before the shuffle */
+        private final int[] saved;
+
+        Kicker(Instance instance, Random random) {
+            this.instance = instance;
+            this.random = random;
+            evaluator = new MoveEvaluator(instance);
+            saved = new int[instance.numJobs];
+        }
+
+        /** Applies the given number of random perturbations. */
+        void kick(CompactResourceOrder order, int strength) {
+            if(instance.numJobs < 2)
+                return;
+            for(int k = 0; k < strength; k++) {
+                switch(random.nextInt(3)) {
+                    case 0:
+                        randomSwap(order);
+                        break;
+                    case 1:
+                        blockInsertion(order);
+                        break;
+                    default:
+                        shuffle(order, Math.min(strength + 1, instance.numJobs));
+                }
+            }
+        }
+
+        void randomSwap(CompactResourceOrder order) {
+            int t1 = random.nextInt(instance.numJobs - 1);
+            DescentSolver.Swap swap = new DescentSolver.Swap(random.nextInt(instance.numMachines), t1, t1 + 1);
+            swap.applyOn(order);
+            if(evaluator.evaluate(order) < 0)
+                swap.applyOn(order);
+        }
+
+        void blockInsertion(CompactResourceOrder order) {
+            evaluator.evaluate(order);
+            List<DescentSolver.Block> blocks = descent.blocksOfCriticalPath(evaluator);
+            if(blocks.isEmpty())
+                return;
+            DescentSolver.Block block = blocks.get(random.nextInt(blocks.size()));
+            int from = block.firstTask + random.nextInt(block.lastTask - block.firstTask + 1);
+            int to = from == block.firstTask || (from != block.lastTask && random.nextBoolean()) ? block.lastTask : block.firstTask;
+            order.move(block.machine, from, to);
+            if(evaluator.evaluate(order) < 0)
+                order.move(block.machine, to, from);
+        }
+
+        void shuffle(CompactResourceOrder order, int length) {
+            int machine = random.nextInt(instance.numMachines);
+            int offset = machine * instance.numJobs + random.nextInt(instance.numJobs - length + 1);
+            System.arraycopy(order.jobs, offset, saved, 0, length);
+            for(int k = length - 1; k > 0; k--) {
+                int other = random.nextInt(k + 1);
+                int tmp = order.jobs[offset + k];
+                order.jobs[offset + k] = order.jobs[offset + other];
+                order.jobs[offset + other] = tmp;
+            }
+            if(evaluator.evaluate(order) < 0)
+                System.arraycopy(saved, 0, order.jobs, offset, length);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** Lower bounds of the makespan of the solutions of an instance, computed from the instance alone.
+ *
+ * The head of a task is the total duration of the tasks before it in its job, its tail the total duration of the
+ * tasks after it.
+ *  - job bound : total duration of the longest job,
+ *  - machine bound : for each machine, smallest head + total duration + smallest tail of its tasks,
+ *  - one machine bound : for each machine, value of Jackson's preemptive schedule of its tasks with these heads and
+ *    tails (it dominates the machine bound),
+ *  - two job bound (optional) : for each pair of jobs, makespan of the optimal schedule of these two jobs alone.
+ * All are O(numJobs numTasks log numJobs) except the two job bound, in O(numJobs^2 numTasks^2).
+ */
+public class LowerBounds {
+
+    public final int jobBound;
+    public final int machineBound;
+    public final int oneMachineBound;
+    /** 0 if it was not computed */
+    public final int twoJobBound;
+
+    public LowerBounds(Instance instance, boolean twoJobs) {
+        int jobs = 0;
+        for(int j = 0; j < instance.numJobs; j++)
+            jobs = Math.max(jobs, instance.totalWork(j));
+        jobBound = jobs;
+
+        // tasks of each machine
+        List<List<Integer>> tasksOfMachine = new ArrayList<>();
+        for(int m = 0; m < instance.numMachines; m++)
+            tasksOfMachine.add(new ArrayList<>());
+        for(int id = 0; id < instance.numJobs * instance.numTasks; id++)
+            tasksOfMachine.get(instance.machine(id)).add(id);
+        int capacity = tasksOfMachine.stream().mapToInt(List::size).max().orElse(0);
+
+        OneMachineScheduler scheduler = new OneMachineScheduler(capacity);
+        int[] r = new int[capacity];
+        int[] p = new int[capacity];
+        int[] q = new int[capacity];
+        int machines = 0;
+        int oneMachine = 0;
+        for(List<Integer> tasks : tasksOfMachine) {
+            if(tasks.isEmpty())
+                continue;
+            int load = 0, minHead = Integer.MAX_VALUE, minTail = Integer.MAX_VALUE;
+            for(int k = 0; k < tasks.size(); k++) {
+                int id = tasks.get(k);
+                r[k] = head(instance, id);
+                p[k] = instance.duration(id);
+                q[k] = tail(instance, id);
+                load += p[k];
+                minHead = Math.min(minHead, r[k]);
+                minTail = Math.min(minTail, q[k]);
+            }
+            machines = Math.max(machines, minHead + load + minTail);
+            oneMachine = Math.max(oneMachine, scheduler.preemptiveBound(tasks.size(), r, p, q));
+        }
+        machineBound = machines;
+        oneMachineBound = oneMachine;
+
+        int pairs = 0;
+        if(twoJobs) {
+            TwoJobs solver = new TwoJobs(instance);
+            for(int a = 0; a < instance.numJobs; a++) {
+                for(int b = a + 1; b < instance.numJobs; b++)
+                    pairs = Math.max(pairs, solver.makespan(a, b));
+            }
+        }
+        twoJobBound = pairs;
+    }
+
+    /** Bounds that are cheap to compute, without the two job bound. */
+    public LowerBounds(Instance instance) {
+        this(instance, false);
+    }
+
+    /** Best of the lower bounds. */
+    public int value() {
+        return Math.max(Math.max(jobBound, machineBound), Math.max(oneMachineBound, twoJobBound));
+    }
+
+    private static int head(Instance instance, int id) {
+        int job = id / instance.numTasks;
+        return instance.totalWork(job) - instance.remainingWork(job, id % instance.numTasks);
+    }
+
+    private static int tail(Instance instance, int id) {
+        return instance.remainingWork(id / instance.numTasks, id % instance.numTasks) - instance.duration(id);
+    }
+
+    /** Optimal schedule of two jobs by the geometric method (Akers 1956, Brucker 1988).
+     *
+     * A schedule of jobs a and b is a monotone path from (0, 0) to (total work of a, total work of b) in the plane
+     * whose coordinates are the progress of each job : horizontal when only a is executed, vertical when only b is,
+     * diagonal when both are. Two tasks of the same machine define an obstacle, the rectangle of the progresses at which
+     * both would be executed. The length of a path is its duration. An optimal path goes diagonally until it hits an
+     * obstacle, then to the north-west corner of the obstacle (b is executed first) or to its south-east corner (a is
+     * executed first), and so on. It is a shortest path in the graph of these corners.
+     */
+    private static class TwoJobs {
+        private final Instance instance;
+        /** obstacles : x1, x2, y1, y2 */
+        private final int[] obstacles;
+        /** corners : x, y, and the distance from the origin */
+        private final int[] x, y, distance;
+        private final long[] byDiagonal;
+
+        TwoJobs(Instance instance) {
+            this.instance = instance;
+            int maxObstacles = instance.numTasks * instance.numTasks;
+            obstacles = new int[4 * maxObstacles];
+            x = new int[2 * maxObstacles + 1];
+            y = new int[2 * maxObstacles + 1];
+            distance = new int[2 * maxObstacles + 1];
+            byDiagonal = new long[2 * maxObstacles + 1];
+        }
+
+        int makespan(int a, int b) {
+            int numObstacles = 0;
+            for(int i = 0; i < instance.numTasks; i++) {
+                int ia = a * instance.numTasks + i;
+                for(int k = 0; k < instance.numTasks; k++) {
+                    int ib = b * instance.numTasks + k;
+                    if(instance.machine(ia) != instance.machine(ib) || instance.duration(ia) == 0 || instance.duration(ib) == 0)
+                        continue;
+                    obstacles[4 * numObstacles] = head(instance, ia);
+                    obstacles[4 * numObstacles + 1] = head(instance, ia) + instance.duration(ia);
+                    obstacles[4 * numObstacles + 2] = head(instance, ib);
+                    obstacles[4 * numObstacles + 3] = head(instance, ib) + instance.duration(ib);
+                    numObstacles++;
+                }
+            }
+            int endX = instance.totalWork(a);
+            int endY = instance.totalWork(b);
+
+            // corner 0 is the origin, corners 2o+1 and 2o+2 the north-west and south-east corners of obstacle o
+            int numCorners = 2 * numObstacles + 1;
+            x[0] = y[0] = 0;
+            for(int o = 0; o < numObstacles; o++) {
+                x[2 * o + 1] = obstacles[4 * o];
+                y[2 * o + 1] = obstacles[4 * o + 3];
+                x[2 * o + 2] = obstacles[4 * o + 1];
+                y[2 * o + 2] = obstacles[4 * o + 2];
+            }
+            // every edge increases x + y : corners are processed in this order
+            for(int c = 0; c < numCorners; c++) {
+                distance[c] = Integer.MAX_VALUE;
+                byDiagonal[c] = ((long) (x[c] + y[c]) << 32) | c;
+            }
+            Arrays.sort(byDiagonal, 0, numCorners);
+            distance[0] = 0;
+
+            int best = Integer.MAX_VALUE;
+            for(int k = 0; k < numCorners; k++) {
+                int c = (int) byDiagonal[k];
+                if(distance[c] == Integer.MAX_VALUE)
+                    continue;
+                // first obstacle whose interior is entered by the diagonal from the corner
+                int hit = -1;
+                int hitAt = Integer.MAX_VALUE;
+                for(int o = 0; o < numObstacles; o++) {
+                    int enter = Math.max(obstacles[4 * o] - x[c], obstacles[4 * o + 2] - y[c]);
+                    int leave = Math.min(obstacles[4 * o + 1] - x[c], obstacles[4 * o + 3] - y[c]);
+                    if(enter < leave && leave > 0 && enter < hitAt) {
+                        hit = o;
+                        hitAt = enter;
+                    }
+                }
+                if(hit < 0) {
+                    best = Math.min(best, distance[c] + Math.max(endX - x[c], endY - y[c]));
+                    continue;
+                }
+                // a corner can be reached if the path does not go back, along the border of the obstacle
+                for(int corner = 2 * hit + 1; corner <= 2 * hit + 2; corner++) {
+                    if(x[corner] < x[c] || y[corner] < y[c])
+                        continue;
+                    distance[corner] = Math.min(distance[corner], distance[c] + Math.max(x[corner] - x[c], y[corner] - y[c]));
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.encodings.CompactResourceOrder;
+import jobshop.encodings.ScheduleEvaluator;
+
+/** Keeps the heads (earliest start times) and tails (longest path from the end of a task to the end of the schedule)
+ * of every task of a resource order, so that the makespan of a neighbor can be estimated without building a Schedule.
+ *
+ * Tasks are identified by an integer : job * numTasks + task.
+ *
+ * Swapping two adjacent tasks u and v of a critical block only changes the heads of the tasks after them and the tails
+ * of the tasks before them. The longest path going through u or v in the new solution can thus be computed by
+ * recomputing the heads and tails of u and v only (Taillard 1994, Nowicki and Smutnicki 1996). This value is a lower
+ * bound of the new makespan, and it is exact whenever the swap does not improve the current makespan.
+ */
+class MoveEvaluator {
+
+    private final int size;
+    /** disjunctive graph of the loaded solution */
+    private final ScheduleEvaluator graph;
+    /** heads[id] is the earliest start time of the task in the loaded solution */
+    final int[] heads;
+    /** tails[id] is the length of the longest path from the end of the task to the end of the loaded solution */
+    final int[] tails;
+    /** critical blocks of the last evaluated solution, see criticalBlocks() */
+    final int[] blocks;
+    /** tasks of the machine sequence changed by a move in their new order, and their recomputed heads */
+    private final int[] segment;
+    private final int[] segmentHeads;
+
+    private int makespan;
+
+    MoveEvaluator(Instance instance) {
+        size = instance.numJobs * instance.numTasks;
+        graph = new ScheduleEvaluator(instance);
+        heads = new int[size];
+        tails = new int[size];
+        blocks = new int[3 * (size / 2 + 1)];
+        segment = new int[instance.numJobs];
+        segmentHeads = new int[instance.numJobs];
+    }
+
+    /** Computes the heads of the given solution and returns its makespan, or -1 if the solution contains a cycle. */
+    int evaluate(CompactResourceOrder order) {
+        makespan = graph.evaluate(order, heads);
+        return makespan;
+    }
+
+    /** Computes the heads and the tails of the given solution and returns its makespan,
+     * or -1 if the solution contains a cycle. */
+    int load(CompactResourceOrder order) {
+        if(evaluate(order) < 0) {
+            return -1;
+        }
+        for(int k = size - 1; k >= 0; k--) {
+            int id = graph.topologicalOrder(k);
+            tails[id] = Math.max(tailFrom(graph.jobSuccessor(id)), tailFrom(graph.machineSuccessor(id)));
+        }
+        return makespan;
+    }
+
+    /** Computes the critical blocks of the last evaluated solution and returns their number. The k^th block is described
+     * by blocks[3k] : its machine, blocks[3k+1] and blocks[3k+2] : the indices of its first and last tasks on the machine. */
+    int criticalBlocks() {
+        return graph.criticalBlocks(blocks);
+    }
+
+    /** Makespan of the last evaluated solution. */
+    int makespan() {
+        return makespan;
+    }
+
+    /** Estimates the makespan obtained by swapping the tasks at index t1 and t1 + 1 on the given machine
+     * of the loaded solution. Both tasks must be consecutive on a critical path. */
+    int estimateSwap(int machine, int t1, int t2) {
+        assert t2 == t1 + 1;
+        int u = graph.taskAt(machine, t1);
+        int v = graph.taskAt(machine, t2);
+        int pu = graph.duration(u);
+        int pv = graph.duration(v);
+
+        // after the swap, v is executed right before u
+        int headV = Math.max(endOf(graph.jobPredecessor(v)), endOf(graph.machinePredecessor(u)));
+        int headU = Math.max(endOf(graph.jobPredecessor(u)), headV + pv);
+        int tailU = Math.max(tailFrom(graph.jobSuccessor(u)), tailFrom(graph.machineSuccessor(v)));
+        int tailV = Math.max(tailFrom(graph.jobSuccessor(v)), tailU + pu);
+
+        return Math.max(headV + pv + tailV, headU + pu + tailU);
+    }
+
+    /** Estimates the makespan obtained by moving the task at index from to index to on the given machine of the loaded
+     * solution, the tasks in between being shifted by one position (see CompactResourceOrder.move).
+     * The heads of the shifted tasks are recomputed from the heads of their job predecessors and their tails from the
+     * tails of their job successors (Balas and Vazacopoulos 1998). When both tasks are adjacent, this is estimateSwap. */
+    int estimateMove(int machine, int from, int to) {
+        int first = Math.min(from, to);
+        int last = Math.max(from, to);
+        int length = last - first + 1;
+        if(from < to) {
+            for(int k = 0; k < length - 1; k++) {
+                segment[k] = graph.taskAt(machine, first + 1 + k);
+            }
+            segment[length - 1] = graph.taskAt(machine, from);
+        } else {
+            segment[0] = graph.taskAt(machine, from);
+            for(int k = 1; k < length; k++) {
+                segment[k] = graph.taskAt(machine, first + k - 1);
+            }
+        }
+
+        int previousEnd = endOf(graph.machinePredecessor(graph.taskAt(machine, first)));
+        for(int k = 0; k < length; k++) {
+            int id = segment[k];
+            segmentHeads[k] = Math.max(endOf(graph.jobPredecessor(id)), previousEnd);
+            previousEnd = segmentHeads[k] + graph.duration(id);
+        }
+        int nextTail = tailFrom(graph.machineSuccessor(graph.taskAt(machine, last)));
+        int estimate = 0;
+        for(int k = length - 1; k >= 0; k--) {
+            int id = segment[k];
+            int tail = Math.max(tailFrom(graph.jobSuccessor(id)), nextTail);
+            estimate = Math.max(estimate, segmentHeads[k] + graph.duration(id) + tail);
+            nextTail = graph.duration(id) + tail;
+        }
+        return estimate;
+    }
+
+    /** Sufficient condition for the move of estimateMove not to create a cycle, when the tasks at from and to belong
+     * to the same critical block of the loaded solution (Balas and Vazacopoulos 1998). A task u moved after a task v
+     * creates a cycle only if there is a path from the job successor of u to v, which is impossible when the longest
+     * path from v is at least as long as the one from the job successor of u (durations being positive).
+     * Symmetrically when a task is moved before another one. Always true for adjacent tasks. */
+    boolean isFeasibleMove(int machine, int from, int to) {
+        int u = graph.taskAt(machine, from);
+        int v = graph.taskAt(machine, to);
+        if(from < to)
+            return tailFrom(v) >= tailFrom(graph.jobSuccessor(u));
+        else
+            return endOf(v) >= endOf(graph.jobPredecessor(u));
+    }
+
+    /** end time of the given task, 0 if it does not exist */
+    private int endOf(int id) {
+        return id == -1 ? 0 : heads[id] + graph.duration(id);
+    }
+
+    /** length of the longest path starting with the given task, 0 if it does not exist */
+    private int tailFrom(int id) {
+        return id == -1 ? 0 : graph.duration(id) + tails[id];
+    }
+}
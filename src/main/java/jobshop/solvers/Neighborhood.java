@@ -0,0 +1,136 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.encodings.CompactResourceOrder;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/** Moves of the critical blocks of a solution, generated from a MoveEvaluator in which the solution is loaded.
+ *
+ * A move takes the task at position from on a machine to position to, the tasks in between being shifted by one
+ * position (see CompactResourceOrder.move).
+ *  - N5 (Nowicki and Smutnicki 1996) : swaps of the first two and of the last two tasks of each block,
+ *  - N6 (Balas and Vazacopoulos 1998) : moves of each task of a block to the beginning or to the end of the block,
+ *  - N7 (Zhang et al. 2007) : N6, plus the moves of the first and of the last task of each block to every position
+ *    inside the block.
+ * Swaps of adjacent tasks of a critical block never create a cycle. The other moves are only kept if they satisfy the
+ * condition of MoveEvaluator.isFeasibleMove, so that no cycle check is needed before their evaluation. The estimate of
+ * each move (MoveEvaluator.estimateMove) only depends on the tasks between from and to : it filters the moves before
+ * their exact evaluation, which is O(number of tasks).
+ *
+ * Moves are stored in primitive arrays, generating a neighborhood does not allocate.
+ */
+public class Neighborhood {
+
+    /** swaps of the first two and of the last two tasks of each critical block */
+    public static final int N5 = 0;
+    /** moves of each task of a critical block to the beginning or to the end of the block */
+    public static final int N6 = 1;
+    /** N6 and moves of the first and last tasks of each critical block inside the block */
+    public static final int N7 = 2;
+
+    private final int type;
+    /** move k takes the task at froms[k] on machines[k] to tos[k], its estimated makespan is estimates[k] */
+    final int[] machines;
+    final int[] froms;
+    final int[] tos;
+    final int[] estimates;
+    /** estimate in the high bits, move in the low bits */
+    private final long[] order;
+    private int size;
+
+    Neighborhood(Instance instance, int type) {
+        this.type = type;
+        // a block of length l has less than 4 l moves, and the blocks do not share tasks
+        int capacity = 4 * instance.numJobs * instance.numTasks;
+        machines = new int[capacity];
+        froms = new int[capacity];
+        tos = new int[capacity];
+        estimates = new int[capacity];
+        order = new long[capacity];
+    }
+
+    /** Generates the moves of the solution loaded in the evaluator, in the order of the blocks, and returns their
+     * number. An empty neighborhood means that the critical path is a single job : the solution is optimal. */
+    int generate(MoveEvaluator evaluator) {
+        size = 0;
+        int numBlocks = evaluator.criticalBlocks();
+        for(int b = 0; b < numBlocks; b++) {
+            int machine = evaluator.blocks[3 * b];
+            int first = evaluator.blocks[3 * b + 1];
+            int last = evaluator.blocks[3 * b + 2];
+            if(last == first + 1) {
+                add(evaluator, machine, first, last);
+            } else if(type == N5) {
+                add(evaluator, machine, first, first + 1);
+                add(evaluator, machine, last - 1, last);
+            } else {
+                for(int i = first + 1; i <= last; i++)
+                    add(evaluator, machine, i, first);
+                for(int i = first; i < last; i++)
+                    add(evaluator, machine, i, last);
+                if(type == N7) {
+                    // positions next to the ends are already reached by the swaps of N6
+                    for(int i = first + 2; i < last; i++)
+                        add(evaluator, machine, first, i);
+                    for(int i = first + 1; i < last - 1; i++)
+                        add(evaluator, machine, last, i);
+                }
+            }
+        }
+        return size;
+    }
+
+    private void add(MoveEvaluator evaluator, int machine, int from, int to) {
+        if(!evaluator.isFeasibleMove(machine, from, to))
+            return;
+        machines[size] = machine;
+        froms[size] = from;
+        tos[size] = to;
+        estimates[size] = evaluator.estimateMove(machine, from, to);
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** True if move k swaps two adjacent tasks : its estimate is then a lower bound of its makespan, while the one of
+     * an insertion is only an approximation. */
+    boolean isSwap(int k) {
+        return tos[k] - froms[k] == 1 || froms[k] - tos[k] == 1;
+    }
+
+    /** Sorts the moves by increasing estimate, see move(). */
+    void sortByEstimate() {
+        for(int k = 0; k < size; k++)
+            order[k] = ((long) estimates[k] << 32) | k;
+        Arrays.sort(order, 0, size);
+    }
+
+    /** Orders the moves randomly, see move(). */
+    void shuffle(Random random) {
+        for(int k = 0; k < size; k++)
+            order[k] = k;
+        for(int k = size - 1; k > 0; k--) {
+            int other = random.nextInt(k + 1);
+            long tmp = order[k];
+            order[k] = order[other];
+            order[other] = tmp;
+        }
+    }
+
+    /** Index of the move of the given rank in the last order (sortByEstimate() or shuffle()). */
+    int move(int rank) {
+        return (int) order[rank];
+    }
+
+    void apply(int k, CompactResourceOrder solution) {
+        solution.move(machines[k], froms[k], tos[k]);
+    }
+
+    void undo(int k, CompactResourceOrder solution) {
+        solution.move(machines[k], tos[k], froms[k]);
+    }
+}
@@ -0,0 +1,202 @@
+package jobshop.solvers;
+
+import java.util.Arrays;
+
+/** Sequences the tasks of a single machine, each task j having a release date r[j] (head), a duration p[j] and a delivery
+ * time q[j] (tail), so as to minimize max(C[j] + q[j]) where C[j] is the completion time of j (problem 1|r_j,q_j|Cmax).
+ *
+ * This is the subproblem solved for each machine by the shifting bottleneck heuristic, and the preemptive version of
+ * the problem gives a lower bound of the job shop problem.
+ * Buffers are allocated once for at most capacity tasks : a scheduler is not thread safe.
+ */
+class OneMachineScheduler {
+
+    private final int capacity;
+    /** keys used to sort the tasks by release date : release date in the high bits, task in the low bits */
+    private final long[] byRelease;
+    /** max-heap of tasks ordered by delivery time */
+    private final int[] heap;
+    private int heapSize;
+    private final int[] remaining;
+    private final int[] starts;
+    private final int[] sequence;
+
+    /** Carlier's branch and bound state */
+    private int[] r, p, q;
+    private int n;
+    private int nodes;
+    private int maxNodes;
+    private int best;
+    private int[] bestSequence;
+
+    OneMachineScheduler(int capacity) {
+        this.capacity = capacity;
+        byRelease = new long[capacity];
+        heap = new int[capacity];
+        remaining = new int[capacity];
+        starts = new int[capacity];
+        sequence = new int[capacity];
+    }
+
+    /** Schrage's heuristic : whenever the machine is free, the released task with the largest delivery time is started.
+     * Writes the sequence in order and the start times in starts, and returns max(C[j] + q[j]). */
+    private int schrage(int n, int[] r, int[] p, int[] q, int[] order, int[] starts) {
+        sortByRelease(n, r);
+        heapSize = 0;
+        int next = 0;
+        int time = 0;
+        int value = 0;
+        for(int k = 0; k < n; k++) {
+            if(heapSize == 0)
+                time = Math.max(time, release(next));
+            while(next < n && release(next) <= time)
+                push(task(next++), q);
+            int j = pop(q);
+            order[k] = j;
+            starts[k] = time;
+            time += p[j];
+            value = Math.max(value, time + q[j]);
+        }
+        return value;
+    }
+
+    /** Value of the optimal preemptive schedule (Jackson's preemptive schedule), a lower bound of the problem. */
+    int preemptiveBound(int n, int[] r, int[] p, int[] q) {
+        checkCapacity(n);
+        sortByRelease(n, r);
+        System.arraycopy(p, 0, remaining, 0, n);
+        heapSize = 0;
+        int next = 0;
+        int time = 0;
+        int value = 0;
+        while(next < n || heapSize > 0) {
+            if(heapSize == 0)
+                time = Math.max(time, release(next));
+            while(next < n && release(next) <= time)
+                push(task(next++), q);
+            int j = pop(q);
+            // j runs until it completes or until the next release, which may preempt it
+            int end = next < n ? Math.min(time + remaining[j], release(next)) : time + remaining[j];
+            remaining[j] -= end - time;
+            time = end;
+            if(remaining[j] == 0)
+                value = Math.max(value, time + q[j]);
+            else
+                push(j, q);
+        }
+        return value;
+    }
+
+    /** Carlier's branch and bound (1982), stopped after maxNodes nodes. Writes in order the best sequence found and
+     * returns its value. r and q are modified during the search but restored before returning. */
+    int solve(int n, int[] r, int[] p, int[] q, int[] order, int maxNodes) {
+        checkCapacity(n);
+        this.n = n;
+        this.r = r;
+        this.p = p;
+        this.q = q;
+        this.maxNodes = maxNodes;
+        this.nodes = 0;
+        this.best = Integer.MAX_VALUE;
+        this.bestSequence = order;
+        branch();
+        this.r = this.p = this.q = this.bestSequence = null;
+        return best;
+    }
+
+    private void branch() {
+        if(nodes++ >= maxNodes)
+            return;
+        int value = schrage(n, r, p, q, sequence, starts);
+        if(value < best) {
+            best = value;
+            System.arraycopy(sequence, 0, bestSequence, 0, n);
+        }
+
+        // b : last task of the sequence reaching the value, a : first task of the block without idle time ending at b
+        int b = n - 1;
+        while(starts[b] + p[sequence[b]] + q[sequence[b]] != value)
+            b--;
+        int a = b;
+        while(a > 0 && starts[a - 1] + p[sequence[a - 1]] == starts[a])
+            a--;
+        // c : last task of the block delivered before b, the schedule is optimal if there is none
+        int c = b - 1;
+        while(c >= a && q[sequence[c]] >= q[sequence[b]])
+            c--;
+        if(c < a)
+            return;
+
+        // the tasks J after c in the block are executed either all before c or all after c
+        int rJ = Integer.MAX_VALUE, pJ = 0, qJ = Integer.MAX_VALUE;
+        for(int k = c + 1; k <= b; k++) {
+            int j = sequence[k];
+            rJ = Math.min(rJ, r[j]);
+            pJ += p[j];
+            qJ = Math.min(qJ, q[j]);
+        }
+        int jc = sequence[c];
+        int bound = Math.max(rJ + pJ + qJ, Math.min(rJ, r[jc]) + pJ + p[jc] + Math.min(qJ, q[jc]));
+        if(bound >= best)
+            return;
+
+        // c after J
+        int old = r[jc];
+        r[jc] = Math.max(old, rJ + pJ);
+        if(preemptiveBound(n, r, p, q) < best)
+            branch();
+        r[jc] = old;
+
+        // c before J
+        old = q[jc];
+        q[jc] = Math.max(old, qJ + pJ);
+        if(preemptiveBound(n, r, p, q) < best)
+            branch();
+        q[jc] = old;
+    }
+
+    private void checkCapacity(int n) {
+        if(n > capacity)
+            throw new RuntimeException("Too many tasks for this scheduler : "+n+" > "+capacity);
+    }
+
+    private void sortByRelease(int n, int[] r) {
+        for(int j = 0; j < n; j++)
+            byRelease[j] = ((long) r[j] << 32) | j;
+        Arrays.sort(byRelease, 0, n);
+    }
+
+    private int release(int k) {
+        return (int) (byRelease[k] >> 32);
+    }
+
+    private int task(int k) {
+        return (int) byRelease[k];
+    }
+
+    private void push(int j, int[] q) {
+        int i = heapSize++;
+        while(i > 0 && q[heap[(i - 1) / 2]] < q[j]) {
+            heap[i] = heap[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+        heap[i] = j;
+    }
+
+    private int pop(int[] q) {
+        int top = heap[0];
+        int last = heap[--heapSize];
+        int i = 0;
+        while(2 * i + 1 < heapSize) {
+            int child = 2 * i + 1;
+            if(child + 1 < heapSize && q[heap[child + 1]] > q[heap[child]])
+                child++;
+            if(q[heap[child]] <= q[last])
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+}
@@ -0,0 +1,113 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/** Branch and bound of {@link BranchAndBoundSolver} whose tree is explored by a ForkJoinPool.
+ *
+ * A node is a task of the pool : it is expanded and its children are forked, so that idle workers steal the subtrees
+ * waiting in the queues of the others. When enough tasks are already waiting in the queue of a worker, it explores the
+ * subtree of its node sequentially instead. All the workers prune with the best makespan found by any of them, shared
+ * through a lock-free holder.
+ * The solver returns ProvedOptimal when the tree is exhausted before the deadline.
+ */
+public class ParallelBranchAndBoundSolver implements Solver {
+
+    /** number of tasks waiting in the queue of a worker above which it stops forking */
+    private static final int MAX_SURPLUS_TASKS = 3;
+
+    /** solver giving the initial upper bound */
+    private final Solver seed;
+    /** fraction of the available time given to the seed solver */
+    private final double seedTimeRatio;
+    private final int numThreads;
+
+    public ParallelBranchAndBoundSolver(Solver seed, double seedTimeRatio, int numThreads) {
+        this.seed = seed;
+        this.seedTimeRatio = seedTimeRatio;
+        this.numThreads = numThreads;
+    }
+
+    /** Same initial upper bound as the sequential branch and bound. */
+    public ParallelBranchAndBoundSolver(int numThreads) {
+        this(new TSABSolver(20000, 2500, TSABSolver.N6, new ShiftingBottleneckSolver()), 0.1, numThreads);
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        SharedBest best = new SharedBest();
+        BranchAndBoundSolver.Search search = new BranchAndBoundSolver.Search(instance, best);
+        search.seed(seed, seedTimeRatio, deadline);
+        boolean[] root = search.emptySelection();
+        int rootBound = Math.max(search.bound(root, Integer.MAX_VALUE), new LowerBounds(instance, true).value());
+
+        // each worker has its own buffers, the pool (and its threads) only lives during this resolution
+        ThreadLocal<BranchAndBoundSolver.Search> searches = ThreadLocal.withInitial(() -> new BranchAndBoundSolver.Search(instance, best));
+        ForkJoinPool pool = new ForkJoinPool(numThreads);
+        boolean exhausted;
+        try {
+            exhausted = best.makespan() <= rootBound || pool.invoke(new Node(root, searches, deadline));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int makespan = best.makespan();
+        Result.ExitCause cause = exhausted ? Result.ExitCause.ProvedOptimal : Result.ExitCause.Timeout;
+        return new Result(instance, best.get().order.toSchedule(), cause, exhausted ? makespan : Math.min(rootBound, makespan));
+    }
+
+    /** Exploration of the subtree of a selection. Returns false if the deadline was reached before it was exhausted. */
+    private static class Node extends RecursiveTask<Boolean> {
+        private static final long serialVersionUID = 1L;
+
+        private final boolean[] selection;
+        private final ThreadLocal<BranchAndBoundSolver.Search> searches;
+        private final long deadline;
+
+        Node(boolean[] selection, ThreadLocal<BranchAndBoundSolver.Search> searches, long deadline) {
+            this.selection = selection;
+            this.searches = searches;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected Boolean compute() {
+            BranchAndBoundSolver.Search search = searches.get();
+            if(getSurplusQueuedTaskCount() > MAX_SURPLUS_TASKS)
+                return search.explore(selection, deadline);
+            if(System.currentTimeMillis() >= deadline)
+                return false;
+
+            List<boolean[]> children = new ArrayList<>();
+            List<Integer> bounds = new ArrayList<>();
+            search.expand(selection, children, bounds);
+            if(children.isEmpty())
+                return true;
+            Integer[] order = new Integer[children.size()];
+            for(int k = 0; k < order.length; k++)
+                order[k] = k;
+            Arrays.sort(order, (k1, k2) -> Integer.compare(bounds.get(k1), bounds.get(k2)));
+
+            // the children with the largest bounds are forked first : they are the first ones stolen by the other
+            // workers, while this worker explores itself the most promising one and then pops the others in order
+            List<Node> forked = new ArrayList<>();
+            for(int k = order.length - 1; k > 0; k--) {
+                Node child = new Node(children.get(order[k]), searches, deadline);
+                child.fork();
+                forked.add(child);
+            }
+            boolean exhausted = search.best.makespan() <= bounds.get(order[0])
+                    || new Node(children.get(order[0]), searches, deadline).compute();
+            for(int k = forked.size() - 1; k >= 0; k--)
+                exhausted &= forked.get(k).join();
+            return exhausted;
+        }
+    }
+}
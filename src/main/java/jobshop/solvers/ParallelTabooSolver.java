@@ -0,0 +1,104 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.encodings.CompactResourceOrder;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.ScheduleEvaluator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** Portfolio of independent taboo walks running in parallel until the deadline.
+ *
+ * Workers differ by the priority rule of their initial solution, by their taboo tenure and by their random generator.
+ * After each walk, a worker offers its best solution to a lock-free shared holder and starts a new walk from a random
+ * perturbation of the best solution found so far by all the workers.
+ */
+public class ParallelTabooSolver implements Solver {
+
+    private static final int[] PRIORITY_MODES = {
+            GluttonousSolver.PRIORITY_SPT, GluttonousSolver.PRIORITY_LPT,
+            GluttonousSolver.PRIORITY_SRPT, GluttonousSolver.PRIORITY_LRPT };
+    private static final int[] TENURES = { 5, 10, 15, 25 };
+    /** maximum number of random swaps applied before a new walk */
+    private static final int MAX_PERTURBATION = 8;
+
+    /** number of iterations of each taboo walk */
+    private final int maxIteration;
+    private final int numThreads;
+
+    public ParallelTabooSolver(int maxIteration, int numThreads) {
+        this.maxIteration = maxIteration;
+        this.numThreads = numThreads;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        SharedBest best = new SharedBest();
+        int lowerBound = new LowerBounds(instance).value();
+        List<Callable<Void>> workers = new ArrayList<>();
+        for(int w = 0; w < numThreads; w++) {
+            final int worker = w;
+            workers.add(() -> {
+                work(instance, worker, best, lowerBound, deadline);
+                return null;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            for(Future<Void> future : executor.invokeAll(workers)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("A taboo walk failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        Result.ExitCause cause = best.makespan() <= lowerBound ? Result.ExitCause.ProvedOptimal : Result.ExitCause.Timeout;
+        return new Result(instance, best.get().order.toSchedule(), cause, lowerBound);
+    }
+
+    /** Loop of a worker : taboo walk, publication of the result, perturbation of the global best, and so on, until the
+     * deadline or until a solution reaches the lower bound. */
+    private void work(Instance instance, int worker, SharedBest best, int lowerBound, long deadline) {
+        Random random = new Random(worker);
+        int priorityMode = priorityMode(worker);
+        TabooSolver walker = new TabooSolver(maxIteration, tenure(worker), priorityMode);
+        ScheduleEvaluator evaluator = new ScheduleEvaluator(instance);
+        int[] startTimes = new int[instance.numJobs * instance.numTasks];
+
+        GluttonousSolver seed = new GluttonousSolver(priorityMode);
+        CompactResourceOrder start = new CompactResourceOrder(new ResourceOrder(seed.solve(instance, deadline).schedule));
+        best.offer(start, evaluator.evaluate(start, startTimes));
+
+        while(best.makespan() > lowerBound && System.currentTimeMillis() < deadline) {
+            CompactResourceOrder found = walker.search(start, lowerBound, deadline);
+            best.offer(found, evaluator.evaluate(found, startTimes));
+
+            start = best.get().order.clone();
+            walker.perturb(start, 1 + random.nextInt(MAX_PERTURBATION), random);
+        }
+    }
+
+    /** Taboo tenure of a worker : consecutive workers use different tenures. */
+    static int tenure(int worker) {
+        return TENURES[worker % TENURES.length];
+    }
+
+    /** Priority rule of the initial solution of a worker : shifted by one after each round of tenures, so that every
+     * pair (rule, tenure) is used once before any is repeated. */
+    static int priorityMode(int worker) {
+        return PRIORITY_MODES[(worker + worker / TENURES.length) % PRIORITY_MODES.length];
+    }
+}
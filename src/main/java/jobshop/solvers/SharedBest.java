@@ -0,0 +1,48 @@
+package jobshop.solvers;
+
+import jobshop.encodings.CompactResourceOrder;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/** Best solution found so far by several threads working on the same instance.
+ * Updates are lock-free : a solution replaces the current one by compare-and-set only if it is strictly better. */
+class SharedBest {
+
+    /** Immutable pair (solution, makespan). The solution must not be modified once offered. */
+    static final class Entry {
+        final CompactResourceOrder order;
+        final int makespan;
+
+        Entry(CompactResourceOrder order, int makespan) {
+            this.order = order;
+            this.makespan = makespan;
+        }
+    }
+
+    private final AtomicReference<Entry> best = new AtomicReference<>();
+
+    /** Proposes a solution. Returns true if it became the new best one.
+     * The caller must not modify the solution afterwards. */
+    boolean offer(CompactResourceOrder order, int makespan) {
+        Entry candidate = new Entry(order, makespan);
+        Entry current;
+        do {
+            current = best.get();
+            if(current != null && current.makespan <= makespan) {
+                return false;
+            }
+        } while(!best.compareAndSet(current, candidate));
+        return true;
+    }
+
+    /** Best entry offered so far, null if none. */
+    Entry get() {
+        return best.get();
+    }
+
+    /** Makespan of the best solution, Integer.MAX_VALUE if none. */
+    int makespan() {
+        Entry current = best.get();
+        return current == null ? Integer.MAX_VALUE : current.makespan;
+    }
+}
@@ -0,0 +1,210 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.ScheduleEvaluator;
+import jobshop.encodings.Task;
+
+import java.util.Arrays;
+
+/** Shifting bottleneck heuristic (Adams, Balas and Zawack 1988).
+ *
+ * Machines are sequenced one at a time. At each step, the heads and tails of the tasks are computed in the graph of
+ * the machines already sequenced, and the one machine problem with heads and tails of each remaining machine is solved
+ * with Carlier's algorithm. The machine with the largest value (the bottleneck) is sequenced accordingly, then each
+ * machine already sequenced is sequenced again given all the others (reoptimization).
+ *
+ * Tasks are identified by an integer : job * numTasks + task.
+ */
+public class ShiftingBottleneckSolver implements Solver {
+
+    /** maximal number of nodes of Carlier's branch and bound for one machine */
+    private final int maxNodes;
+    /** number of reoptimization passes over the sequenced machines after each bottleneck */
+    private final int reoptimizationRounds;
+
+    public ShiftingBottleneckSolver(int maxNodes, int reoptimizationRounds) {
+        this.maxNodes = maxNodes;
+        this.reoptimizationRounds = reoptimizationRounds;
+    }
+
+    public ShiftingBottleneckSolver() {
+        this(1000, 2);
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        ResourceOrder order = new Procedure(instance).run(deadline);
+        Result.ExitCause cause = System.currentTimeMillis() >= deadline
+                ? Result.ExitCause.Timeout
+                : Result.ExitCause.NotProvedOptimal;
+        return new Result(instance, order.toSchedule(), cause);
+    }
+
+    /** State of one run of the heuristic. */
+    private class Procedure {
+        private final Instance instance;
+        private final int numJobs;
+        private final int numTasks;
+        private final int size;
+
+        /** sequence[m] is the sequence of tasks of machine m, null if it is not sequenced yet */
+        private final int[][] sequence;
+        /** value of the one machine problem of each machine when it was last sequenced */
+        private final int[] machineValue;
+        /** graph of the job precedences and of the sequenced machines */
+        private final ScheduleEvaluator graph;
+        private final int[] heads;
+        private final int[] tails;
+
+        /** one machine problem : heads, durations and tails of the tasks of the machine, indexed by job */
+        private final OneMachineScheduler scheduler;
+        private final int[] r, p, q, order;
+
+        Procedure(Instance instance) {
+            this.instance = instance;
+            numJobs = instance.numJobs;
+            numTasks = instance.numTasks;
+            size = numJobs * numTasks;
+            sequence = new int[instance.numMachines][];
+            machineValue = new int[instance.numMachines];
+            graph = new ScheduleEvaluator(instance);
+            heads = new int[size];
+            tails = new int[size];
+            scheduler = new OneMachineScheduler(numJobs);
+            r = new int[numJobs];
+            p = new int[numJobs];
+            q = new int[numJobs];
+            order = new int[numJobs];
+        }
+
+        ResourceOrder run(long deadline) {
+            updateGraph();
+            for(int step = 0; step < instance.numMachines; step++) {
+                // when the deadline is reached, the remaining machines are sequenced by Schrage's heuristic only
+                int nodes = System.currentTimeMillis() < deadline ? maxNodes : 1;
+                int bottleneck = -1;
+                int bottleneckValue = -1;
+                int[] bottleneckSequence = new int[numJobs];
+                for(int m = 0; m < instance.numMachines; m++) {
+                    if(sequence[m] != null)
+                        continue;
+                    int value = solveMachine(m, nodes);
+                    if(value > bottleneckValue) {
+                        bottleneck = m;
+                        bottleneckValue = value;
+                        System.arraycopy(order, 0, bottleneckSequence, 0, numJobs);
+                    }
+                }
+                insert(bottleneck, bottleneckSequence, bottleneckValue);
+
+                for(int round = 0; round < reoptimizationRounds && System.currentTimeMillis() < deadline; round++) {
+                    if(!reoptimize()) {
+                        break;
+                    }
+                }
+            }
+
+            ResourceOrder result = new ResourceOrder(instance);
+            for(int m = 0; m < instance.numMachines; m++) {
+                for(int i = 0; i < numJobs; i++) {
+                    int id = sequence[m][i];
+                    result.tasks[m][i] = new Task(id / numTasks, id % numTasks);
+                }
+            }
+            return result;
+        }
+
+        /** Sequences again each sequenced machine, the bottlenecks first, given the sequences of all the others.
+         * Returns true if the makespan of the partial schedule decreased. */
+        private boolean reoptimize() {
+            int before = makespan();
+            Integer[] machines = new Integer[instance.numMachines];
+            for(int m = 0; m < machines.length; m++)
+                machines[m] = m;
+            Arrays.sort(machines, (m1, m2) -> Integer.compare(machineValue[m2], machineValue[m1]));
+            for(int m : machines) {
+                if(sequence[m] == null)
+                    continue;
+                int makespan = makespan();
+                int[] old = sequence[m];
+                int oldValue = machineValue[m];
+                sequence[m] = null;
+                updateGraph();
+                int value = solveMachine(m, maxNodes);
+                insert(m, Arrays.copyOf(order, numJobs), value);
+                if(makespan() > makespan) {
+                    sequence[m] = old;
+                    machineValue[m] = oldValue;
+                    updateGraph();
+                }
+            }
+            return makespan() < before;
+        }
+
+        /** Solves the one machine problem of m in the current graph, leaves the sequence (of jobs) in order and returns
+         * its value. */
+        private int solveMachine(int m, int nodes) {
+            for(int j = 0; j < numJobs; j++) {
+                int id = j * numTasks + instance.task_with_machine(j, m);
+                r[j] = heads[id];
+                p[j] = instance.duration(id);
+                q[j] = tails[id];
+            }
+            return scheduler.solve(numJobs, r, p, q, order, nodes);
+        }
+
+        /** Sequences machine m with the given order of jobs. If this creates a cycle (the one machine problems ignore the
+         * paths between tasks of the same machine going through other machines), the tasks are sequenced by increasing
+         * head instead, which is consistent with all existing paths. */
+        private void insert(int m, int[] jobs, int value) {
+            int[] tasks = new int[numJobs];
+            for(int i = 0; i < numJobs; i++)
+                tasks[i] = jobs[i] * numTasks + instance.task_with_machine(jobs[i], m);
+            sequence[m] = tasks;
+            machineValue[m] = value;
+            if(!updateGraph()) {
+                sequence[m] = null;
+                updateGraph();
+                int[] rank = new int[size];
+                for(int k = 0; k < size; k++)
+                    rank[graph.topologicalOrder(k)] = k;
+                long[] keys = new long[numJobs];
+                for(int i = 0; i < numJobs; i++)
+                    keys[i] = ((long) heads[tasks[i]] << 32) | rank[tasks[i]];
+                Arrays.sort(keys);
+                for(int i = 0; i < numJobs; i++)
+                    tasks[i] = graph.topologicalOrder((int) keys[i]);
+                sequence[m] = tasks;
+                if(!updateGraph())
+                    throw new RuntimeException("Cycle in the graph of the shifting bottleneck");
+            }
+        }
+
+        private int makespan() {
+            int makespan = 0;
+            for(int j = 0; j < numJobs; j++) {
+                int last = (j + 1) * numTasks - 1;
+                makespan = Math.max(makespan, heads[last] + instance.duration(last));
+            }
+            return makespan;
+        }
+
+        /** Computes the heads and tails of the tasks in the graph of the job precedences and of the sequenced machines.
+         * Returns false if this graph contains a cycle. */
+        private boolean updateGraph() {
+            if(graph.evaluate(sequence, heads) < 0)
+                return false;
+            for(int k = size - 1; k >= 0; k--) {
+                int id = graph.topologicalOrder(k);
+                int jobSucc = graph.jobSuccessor(id);
+                int succ = graph.machineSuccessor(id);
+                tails[id] = Math.max(jobSucc == -1 ? 0 : instance.duration(jobSucc) + tails[jobSucc],
+                        succ == -1 ? 0 : instance.duration(succ) + tails[succ]);
+            }
+            return true;
+        }
+    }
+}
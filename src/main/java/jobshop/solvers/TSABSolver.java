@@ -0,0 +1,392 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Schedule;
+import jobshop.Solver;
+import jobshop.encodings.CompactResourceOrder;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.*;
+
+/** Taboo search with back jump tracking (TSAB, Nowicki and Smutnicki 1996).
+ *
+ * Compared to TabooSolver :
+ *  - the moves of the neighborhood are sorted by their estimated makespan (see MoveEvaluator) and only the first
+ *    admissible one is evaluated exactly,
+ *  - each time the best solution is improved, it is saved in an elite list together with the taboo list and the
+ *    moves of its neighborhood that were not taken. When the search stagnates, or when the makespans of the last
+ *    iterations repeat periodically (the walk is cycling), it jumps back to the last elite solution and continues with
+ *    its next best move,
+ *  - the N6 neighborhood (moving a task of a critical block to the beginning or to the end of the block) can be used
+ *    instead of N5 (swapping the first two or the last two tasks of a block).
+ */
+public class TSABSolver implements Solver {
+
+    /** Value of maxIteration for a search that runs until the deadline. */
+    public static final int UNTIL_DEADLINE = -1;
+
+    /** swaps of the first two and of the last two tasks of each critical block, see Neighborhood */
+    public static final int N5 = Neighborhood.N5;
+    /** moves of each task of a critical block to the beginning or to the end of the block, see Neighborhood */
+    public static final int N6 = Neighborhood.N6;
+
+    /** number of moves kept in the taboo list */
+    static final int TABOO_LENGTH = 8;
+    /** number of elite solutions kept to jump back to */
+    private static final int ELITE_SIZE = 5;
+    /** longest period of a cycle of makespans that is detected */
+    private static final int MAX_PERIOD = 100;
+    /** a cycle is detected once its period has been repeated that many times */
+    static final int CYCLE_REPEATS = 3;
+    /** shortest sequence of periodic makespans considered as a cycle (plateaus are common and not always cycles) */
+    static final int MIN_CYCLE_LENGTH = 50;
+    /** maximum number of random swaps applied on the best solution when no elite solution is left */
+    private static final int MAX_PERTURBATION = 8;
+
+    private final int maxIteration;
+    /** number of iterations without improving the best solution before jumping back */
+    private final int maxStagnation;
+    private final int neighborhood;
+    /** solver building the initial solution */
+    private final Solver seed;
+
+    public TSABSolver(int maxIteration, int maxStagnation, int neighborhood, int priorityMode) {
+        this(maxIteration, maxStagnation, neighborhood, new GluttonousSolver(priorityMode));
+    }
+
+    /** TSAB starting from the solution of the given solver. */
+    public TSABSolver(int maxIteration, int maxStagnation, int neighborhood, Solver seed) {
+        this.maxIteration = maxIteration;
+        this.maxStagnation = maxStagnation;
+        this.neighborhood = neighborhood;
+        this.seed = seed;
+    }
+
+    /** Move of the task at position from to position to on a machine, the tasks in between being shifted. */
+    static class Move {
+        final int machine;
+        final int from;
+        final int to;
+        /** estimated makespan of the solution after the move */
+        final int estimate;
+
+        Move(int machine, int from, int to, int estimate) {
+            this.machine = machine;
+            this.from = from;
+            this.to = to;
+            this.estimate = estimate;
+        }
+
+        void applyOn(CompactResourceOrder order) {
+            order.move(machine, from, to);
+        }
+
+        void undoOn(CompactResourceOrder order) {
+            order.move(machine, to, from);
+        }
+    }
+
+    /** Taboo list of the last TABOO_LENGTH moves, the oldest ones being forgotten first. Each move forbids the orders
+     * of two jobs on a machine that it reversed, an insertion may forbid several of them. The forbidden orders are
+     * stored in a numMachines x numJobs x numJobs array of move numbers : checking an order is O(1) whatever the
+     * number of orders forbidden by each move. */
+    static class TabooFifo {
+        private final int numJobs;
+        /** moves[(machine * numJobs + first) * numJobs + second] is the last move that forbade to execute the task of
+         * job first before the one of job second on the machine, 0 if none */
+        private final int[] moves;
+        /** number of the current move, the first one is 1 */
+        private int move = 0;
+
+        TabooFifo(Instance instance) {
+            numJobs = instance.numJobs;
+            moves = new int[instance.numMachines * numJobs * numJobs];
+        }
+
+        /** Starts a new move : the orders it forbids are forgotten after TABOO_LENGTH other moves. */
+        void newMove() {
+            move++;
+        }
+
+        /** Forbids to execute the task of job first before the one of job second on the machine. */
+        void forbid(int machine, int first, int second) {
+            moves[(machine * numJobs + first) * numJobs + second] = move;
+        }
+
+        boolean isForbidden(int machine, int first, int second) {
+            int forbidden = moves[(machine * numJobs + first) * numJobs + second];
+            return forbidden > 0 && forbidden > move - TABOO_LENGTH;
+        }
+
+        void copyFrom(TabooFifo other) {
+            System.arraycopy(other.moves, 0, moves, 0, moves.length);
+            move = other.move;
+        }
+
+        void clear() {
+            Arrays.fill(moves, 0);
+            move = 0;
+        }
+    }
+
+    /** Detects a walk whose makespans repeat periodically. */
+    static class CycleDetector {
+        /** last makespans, in a circular buffer */
+        private final int[] history = new int[MAX_PERIOD + 1];
+        /** matches[d] is the number of consecutive iterations whose makespan was the one of d iterations before */
+        private final int[] matches = new int[MAX_PERIOD + 1];
+        private int count = 0;
+
+        /** Records the makespan of the current iteration and returns true if the walk is cycling. */
+        boolean record(int makespan) {
+            boolean cycling = false;
+            for(int d = 1; d <= MAX_PERIOD && d <= count; d++) {
+                if(history[(count - d) % history.length] == makespan) {
+                    matches[d]++;
+                    cycling |= matches[d] >= Math.max(MIN_CYCLE_LENGTH, CYCLE_REPEATS * d);
+                } else {
+                    matches[d] = 0;
+                }
+            }
+            history[count % history.length] = makespan;
+            count++;
+            return cycling;
+        }
+
+        void reset() {
+            count = 0;
+            Arrays.fill(matches, 0);
+        }
+    }
+
+    /** A best solution, with the taboo list and the moves not taken at the time it was found. */
+    static class EliteSolution {
+        final CompactResourceOrder order;
+        final TabooFifo taboo;
+        /** moves of the neighborhood not explored yet, by increasing estimate */
+        final List<Move> moves;
+
+        EliteSolution(CompactResourceOrder order, TabooFifo taboo, List<Move> moves) {
+            this.order = order;
+            this.taboo = new TabooFifo(order.instance);
+            this.taboo.copyFrom(taboo);
+            this.moves = moves;
+        }
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        int lowerBound = new LowerBounds(instance).value();
+        Schedule start = seed.solve(instance, deadline).schedule;
+        Schedule best = search(new CompactResourceOrder(new ResourceOrder(start)), lowerBound, deadline).toSchedule();
+        Result.ExitCause cause = best.makespan() <= lowerBound ? Result.ExitCause.ProvedOptimal
+                : maxIteration == UNTIL_DEADLINE || System.currentTimeMillis() >= deadline ? Result.ExitCause.Timeout
+                : Result.ExitCause.NotProvedOptimal;
+        return new Result(instance, best, cause, lowerBound);
+    }
+
+    /** Runs the search from the given solution (which is not modified) and returns the best solution encountered.
+     * The search stops early when the deadline is reached or when a solution reaches the given lower bound. */
+    CompactResourceOrder search(CompactResourceOrder start, int lowerBound, long deadline) {
+        Instance instance = start.instance;
+        Random random = new Random(0);
+        // heads and tails of the current solution, used to estimate the moves
+        MoveEvaluator evaluator = new MoveEvaluator(instance);
+        // exact evaluation of the selected moves
+        MoveEvaluator neighborEvaluator = new MoveEvaluator(instance);
+        CompactResourceOrder current = start.clone();
+        CompactResourceOrder bestOrder = start.clone();
+        int bestMakespan = evaluator.evaluate(bestOrder);
+        TabooFifo taboo = new TabooFifo(instance);
+        Deque<EliteSolution> elite = new ArrayDeque<>(ELITE_SIZE);
+        CycleDetector cycles = new CycleDetector();
+        // the current solution is the best one and its neighborhood must be saved in the elite list
+        boolean saveNeighborhood = true;
+        int lastImprovement = 0;
+
+        Neighborhood moves = new Neighborhood(instance, neighborhood);
+
+        for(int iteration = 0; (maxIteration == UNTIL_DEADLINE || iteration < maxIteration)
+                && bestMakespan > lowerBound && System.currentTimeMillis() < deadline; iteration++) {
+            evaluator.load(current);
+            int numMoves = moves.generate(evaluator);
+            if(numMoves == 0) {
+                // the critical path is a single job : the solution is optimal
+                break;
+            }
+            moves.sortByEstimate();
+            CompactResourceOrder before = saveNeighborhood ? current.clone() : null;
+
+            int selected = selectAndApply(moves, current, taboo, neighborEvaluator, bestMakespan);
+            if(saveNeighborhood) {
+                // the taboo list is not modified before forbidReverse : it is the one of the saved solution
+                List<Move> remaining = new ArrayList<>();
+                for(int i = 0; i < numMoves; i++) {
+                    int k = moves.move(i);
+                    if(k != selected)
+                        remaining.add(new Move(moves.machines[k], moves.froms[k], moves.tos[k], moves.estimates[k]));
+                }
+                if(!remaining.isEmpty()) {
+                    elite.addFirst(new EliteSolution(before, taboo, remaining));
+                    if(elite.size() > ELITE_SIZE) {
+                        elite.removeLast();
+                    }
+                }
+                saveNeighborhood = false;
+            }
+
+            boolean jumpBack = selected < 0;
+            if(selected >= 0) {
+                forbidReverse(moves.machines[selected], moves.froms[selected], moves.tos[selected], current, taboo);
+                int makespan = neighborEvaluator.makespan();
+                if(makespan < bestMakespan) {
+                    bestMakespan = makespan;
+                    bestOrder = current.clone();
+                    saveNeighborhood = true;
+                    lastImprovement = iteration;
+                    cycles.reset();
+                } else {
+                    jumpBack = cycles.record(makespan) || iteration - lastImprovement >= maxStagnation;
+                }
+            }
+
+            if(jumpBack) {
+                int makespan = jumpBack(elite, current, taboo, neighborEvaluator);
+                if(makespan < 0) {
+                    // no elite solution left : restart from a perturbation of the best solution
+                    current.copyFrom(bestOrder);
+                    perturb(current, 1 + random.nextInt(MAX_PERTURBATION), random, evaluator);
+                    taboo.clear();
+                    makespan = neighborEvaluator.evaluate(current);
+                }
+                if(makespan < bestMakespan) {
+                    bestMakespan = makespan;
+                    bestOrder = current.clone();
+                    saveNeighborhood = true;
+                }
+                lastImprovement = iteration;
+                cycles.reset();
+            }
+        }
+        return bestOrder;
+    }
+
+    /** Applies on the order the first move (by increasing estimate) that is not taboo, or that is taboo but improves
+     * the best solution, and that does not create a cycle. If all moves are taboo, the first one that does not create
+     * a cycle is applied. The exact makespan of the new order is left in neighborEvaluator.
+     * Returns the index of the applied move in the neighborhood, -1 if none is feasible. */
+    int selectAndApply(Neighborhood moves, CompactResourceOrder order, TabooFifo taboo,
+                       MoveEvaluator neighborEvaluator, int bestMakespan) {
+        for(int i = 0; i < moves.size(); i++) {
+            int k = moves.move(i);
+            boolean isTaboo = isTaboo(moves.machines[k], moves.froms[k], moves.tos[k], order, taboo);
+            // only the estimate of a swap is a lower bound : a taboo insertion is evaluated exactly
+            if(isTaboo && moves.isSwap(k) && moves.estimates[k] >= bestMakespan)
+                continue;
+            if(!applyIfFeasible(moves, k, order, neighborEvaluator))
+                continue;
+            // aspiration : the estimate of an insertion is not a lower bound, the exact makespan must improve
+            if(isTaboo && neighborEvaluator.makespan() >= bestMakespan) {
+                moves.undo(k, order);
+                continue;
+            }
+            return k;
+        }
+        for(int i = 0; i < moves.size(); i++) {
+            if(applyIfFeasible(moves, moves.move(i), order, neighborEvaluator))
+                return moves.move(i);
+        }
+        return -1;
+    }
+
+    /** Returns to the last elite solution that still has unexplored moves and applies the best feasible one.
+     * Returns the makespan of the new current solution, -1 if no elite solution is left. */
+    int jumpBack(Deque<EliteSolution> elite, CompactResourceOrder current, TabooFifo taboo,
+                 MoveEvaluator neighborEvaluator) {
+        while(!elite.isEmpty()) {
+            EliteSolution solution = elite.peekFirst();
+            current.copyFrom(solution.order);
+            while(!solution.moves.isEmpty()) {
+                Move move = solution.moves.remove(0);
+                if(applyIfFeasible(move, current, neighborEvaluator)) {
+                    taboo.copyFrom(solution.taboo);
+                    forbidReverse(move.machine, move.from, move.to, current, taboo);
+                    return neighborEvaluator.makespan();
+                }
+            }
+            elite.removeFirst();
+        }
+        return -1;
+    }
+
+    private static boolean applyIfFeasible(Move move, CompactResourceOrder order, MoveEvaluator neighborEvaluator) {
+        move.applyOn(order);
+        if(neighborEvaluator.evaluate(order) < 0) {
+            move.undoOn(order);
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean applyIfFeasible(Neighborhood moves, int k, CompactResourceOrder order,
+                                           MoveEvaluator neighborEvaluator) {
+        moves.apply(k, order);
+        if(neighborEvaluator.evaluate(order) < 0) {
+            moves.undo(k, order);
+            return false;
+        }
+        return true;
+    }
+
+    /** A move is taboo if it executes again two tasks in a forbidden order. */
+    static boolean isTaboo(int machine, int from, int to, CompactResourceOrder order, TabooFifo taboo) {
+        int job = order.job(machine, from);
+        if(from < to) {
+            // the moved task is executed after the tasks it passes over
+            for(int i = from + 1; i <= to; i++) {
+                if(taboo.isForbidden(machine, order.job(machine, i), job))
+                    return true;
+            }
+        } else {
+            for(int i = to; i < from; i++) {
+                if(taboo.isForbidden(machine, job, order.job(machine, i)))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /** Forbids to put the tasks passed over by the move back in their previous order with the moved task : an
+     * insertion reverses the order of the moved task with each of them. The move has already been applied on the
+     * order. */
+    static void forbidReverse(int machine, int from, int to, CompactResourceOrder order, TabooFifo taboo) {
+        // the moved task is now at position to, the tasks it passed over are between from and to
+        int moved = order.job(machine, to);
+        taboo.newMove();
+        if(from < to) {
+            for(int i = from; i < to; i++)
+                taboo.forbid(machine, moved, order.job(machine, i));
+        } else {
+            for(int i = to + 1; i <= from; i++)
+                taboo.forbid(machine, order.job(machine, i), moved);
+        }
+    }
+
+    /** Applies the given number of random swaps of adjacent tasks of the critical blocks, which keeps the solution
+     * feasible. */
+    private static void perturb(CompactResourceOrder order, int strength, Random random, MoveEvaluator evaluator) {
+        for(int k = 0; k < strength; k++) {
+            evaluator.evaluate(order);
+            int numBlocks = evaluator.criticalBlocks();
+            if(numBlocks == 0) {
+                return;
+            }
+            int b = random.nextInt(numBlocks);
+            int first = evaluator.blocks[3 * b + 1];
+            int last = evaluator.blocks[3 * b + 2];
+            int i = first + random.nextInt(last - first);
+            order.swap(evaluator.blocks[3 * b], i, i + 1);
+        }
+    }
+}
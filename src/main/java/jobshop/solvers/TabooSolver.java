@@ -2,271 +2,243 @@ package jobshop.solvers;
 
 import jobshop.Instance;
 import jobshop.Result;
+import jobshop.Schedule;
 import jobshop.Solver;
+import jobshop.encodings.CompactResourceOrder;
 import jobshop.encodings.ResourceOrder;
-import jobshop.encodings.Task;
 
 import java.util.*;
 
 public class TabooSolver implements Solver {
 
+    /** Value of maxIteration for a search that runs until the deadline. */
+    public static final int UNTIL_DEADLINE = -1;
+
+    /** number of elite solutions kept to restart from */
+    private static final int ELITE_SIZE = 5;
+    /** maximum number of random swaps applied on an elite solution when restarting */
+    static final int MAX_PERTURBATION = 8;
+
     private final int maxIteration;
     private final int dureeTaboo;
-    private final int priorityMode;
+    /** solver building the initial solution */
+    private final Solver seed;
+    /** number of iterations without improving the best solution before restarting from an elite one, 0 to never restart */
+    private final int maxStagnation;
+    private final int neighborhood;
 
     public TabooSolver(int maxIteration, int dureeTaboo, int priorityMode) {
-        this.maxIteration = maxIteration;
-        this.dureeTaboo = dureeTaboo;
-        this.priorityMode = priorityMode;
+        this(maxIteration, dureeTaboo, priorityMode, 0);
     }
 
-    /** A block represents a subsequence of the critical path such that all tasks in it execute on the same machine.
-     * This class identifies a block in a ResourceOrder representation.
-     *
-     * Consider the solution in ResourceOrder representation
-     * machine 0 : (0,1) (1,2) (2,2)
-     * machine 1 : (0,2) (2,1) (1,1)
-     * machine 2 : ...
-     *
-     * The block with : machine = 1, firstTask= 0 and lastTask = 1
-     * Represent the task sequence : [(0,2) (2,1)]
-     *
-     * */
-    static class Block {
-        /** machine on which the block is identified */
-        final int machine;
-        /** index of the first task of the block */
-        final int firstTask;
-        /** index of the last task of the block */
-        final int lastTask;
-
-        Block(int machine, int firstTask, int lastTask) {
-            this.machine = machine;
-            this.firstTask = firstTask;
-            this.lastTask = lastTask;
-        }
+    public TabooSolver(int maxIteration, int dureeTaboo, int priorityMode, int maxStagnation) {
+        this(maxIteration, dureeTaboo, new GluttonousSolver(priorityMode), maxStagnation);
     }
 
-    /**
-     * Represents a swap of two tasks on the same machine in a ResourceOrder encoding.
-     *
-     * Consider the solution in ResourceOrder representation
-     * machine 0 : (0,1) (1,2) (2,2)
-     * machine 1 : (0,2) (2,1) (1,1)
-     * machine 2 : ...
-     *
-     * The swam with : machine = 1, t1= 0 and t2 = 1
-     * Represent inversion of the two tasks : (0,2) and (2,1)
-     * Applying this swap on the above resource order should result in the following one :
-     * machine 0 : (0,1) (1,2) (2,2)
-     * machine 1 : (2,1) (0,2) (1,1)
-     * machine 2 : ...
-     */
-    static class Swap {
-        // machine on which to perform the swap
-        final int machine;
-        // index of one task to be swapped
-        final int t1;
-        // index of the other task to be swapped
-        final int t2;
-
-        Swap(int machine, int t1, int t2) {
-            this.machine = machine;
-            this.t1 = t1;
-            this.t2 = t2;
-        }
-
-        /** Apply this swap on the given resource order, transforming it into a new solution. */
-        public <T> void applyOn(HashCodeArrayWrapper<Task> wrapper) {
-            Task tmp = wrapper.get(machine, t1);
-            wrapper.set(machine, t1, wrapper.get(machine, t2));
-            wrapper.set(machine, t2, tmp);
-        }
+    /** Taboo search starting from the solution of the given solver. */
+    public TabooSolver(int maxIteration, int dureeTaboo, Solver seed, int maxStagnation) {
+        this(maxIteration, dureeTaboo, seed, maxStagnation, Neighborhood.N5);
     }
 
+    /** Taboo search with the given neighborhood (Neighborhood.N5, N6 or N7). */
+    public TabooSolver(int maxIteration, int dureeTaboo, Solver seed, int maxStagnation, int neighborhood) {
+        this.maxIteration = maxIteration;
+        this.dureeTaboo = dureeTaboo;
+        this.seed = seed;
+        this.maxStagnation = maxStagnation;
+        this.neighborhood = neighborhood;
+    }
 
     @Override
     public Result solve(Instance instance, long deadline) {
-        Queue<HashCodeArrayWrapper<Task>> tabooQueue = new ArrayDeque<>(maxIteration);
-        Set<HashCodeArrayWrapper<Task>> tabooSet = new HashSet<>(maxIteration);
-        GluttonousSolver solver = new GluttonousSolver(priorityMode);
-        solver.solve(instance, deadline);
-        ResourceOrder bestOrder = solver.sol;
-        ResourceOrder bestLocalOrder = solver.sol;
-        int bestMakespan = bestOrder.toSchedule().makespan();
-        int bestLocalMakespan;
-        for(int iteration = 0; iteration < maxIteration; iteration++) {
-            if(tabooQueue.size() >= dureeTaboo) {
-                tabooSet.remove(tabooQueue.poll());
+        int lowerBound = new LowerBounds(instance).value();
+        Schedule start = seed.solve(instance, deadline).schedule;
+        Schedule best = search(new CompactResourceOrder(new ResourceOrder(start)), lowerBound, deadline).toSchedule();
+        Result.ExitCause cause = best.makespan() <= lowerBound ? Result.ExitCause.ProvedOptimal
+                : maxIteration == UNTIL_DEADLINE || System.currentTimeMillis() >= deadline ? Result.ExitCause.Timeout
+                : Result.ExitCause.NotProvedOptimal;
+        return new Result(instance, best, cause, lowerBound);
+    }
+
+    /** Runs a taboo walk of at most maxIteration iterations (or until the deadline with UNTIL_DEADLINE) from the given
+     * solution, stopping early if the deadline is reached or if a solution reaches the given lower bound. When the best
+     * solution has not been improved for maxStagnation iterations, the walk restarts from a random perturbation of one
+     * of the last best solutions.
+     * Returns the best solution encountered, the start solution is not modified. */
+    CompactResourceOrder search(CompactResourceOrder start, int lowerBound, long deadline) {
+        Instance instance = start.instance;
+        Random random = new Random(0);
+        TabooList taboo = new TabooList(instance);
+        // last best solutions, the most recent (and best) one first
+        Deque<CompactResourceOrder> elite = new ArrayDeque<>(ELITE_SIZE);
+        elite.addFirst(start);
+        int lastImprovement = 0;
+        CompactResourceOrder bestOrder = start;
+        // solution of the walk, its neighbors are explored by applying and reverting swaps
+        CompactResourceOrder current = start.clone();
+        // heads and tails of the current solution, used to estimate the neighbors
+        MoveEvaluator evaluator = new MoveEvaluator(instance);
+        // exact evaluation of the neighbors that may be selected
+        MoveEvaluator neighborEvaluator = new MoveEvaluator(instance);
+        Neighborhood moves = new Neighborhood(instance, neighborhood);
+        int bestMakespan = evaluator.evaluate(bestOrder);
+        for(int iteration = 0; (maxIteration == UNTIL_DEADLINE || iteration < maxIteration)
+                && bestMakespan > lowerBound && System.currentTimeMillis() < deadline; iteration++) {
+            if(maxStagnation > 0 && iteration - lastImprovement >= maxStagnation) {
+                restart(current, elite, taboo, random);
+                lastImprovement = iteration;
             }
-            List<Swap> swaps = new ArrayList<Swap>();
-            for(Block b : blocksOfCriticalPath(bestLocalOrder)) {
-                swaps.addAll(neighbors(b));
+            evaluator.load(current);
+            int numMoves = moves.generate(evaluator);
+            if(numMoves == 0) {
+                // the critical path is a single job : the solution is optimal
+                break;
+            }
+            int bestMove = -1;
+            int bestLocalMakespan = Integer.MAX_VALUE;
+            for(int k = 0; k < numMoves; k++) {
+                // the estimate is a lower bound of the makespan of a swap, an approximation for an insertion which is
+                // always evaluated exactly
+                int estimate = moves.estimates[k];
+                boolean isSwap = moves.isSwap(k);
+                if(isSwap && estimate >= bestLocalMakespan)
+                    continue;
+                boolean isTaboo = expiry(moves.machines[k], moves.froms[k], moves.tos[k], current, taboo) > iteration;
+                // aspiration : a taboo move is allowed if it improves the best solution
+                if(isTaboo && isSwap && estimate >= bestMakespan)
+                    continue;
+                moves.apply(k, current);
+                int makespan = neighborEvaluator.evaluate(current);
+                moves.undo(k, current);
+                if(makespan >= 0 && makespan < bestLocalMakespan && (!isTaboo || makespan < bestMakespan)) {
+                    bestLocalMakespan = makespan;
+                    bestMove = k;
+                }
             }
-            bestLocalMakespan = Integer.MAX_VALUE;
-            ResourceOrder tmpOrder = bestLocalOrder.clone();
-            HashCodeArrayWrapper<Task> tmpWrapper = new HashCodeArrayWrapper<>(tmpOrder.tasks);
-            for(Swap s : swaps) {
-                // update solution and hashCode using wrapper
-                s.applyOn(tmpWrapper);
-                if(!tabooSet.contains(tmpWrapper)) {
-                    int makespan = tmpOrder.toSchedule().makespan();
-                    if(makespan < bestLocalMakespan) {
-                        bestLocalMakespan = makespan;
-                        bestLocalOrder = tmpOrder.clone();
+            if(bestMove < 0) {
+                // every move is taboo : take the one that will stop being taboo first
+                int oldest = Integer.MAX_VALUE;
+                for(int k = 0; k < numMoves; k++) {
+                    int expiry = expiry(moves.machines[k], moves.froms[k], moves.tos[k], current, taboo);
+                    if(expiry < oldest) {
+                        oldest = expiry;
+                        bestMove = k;
                     }
                 }
-                s.applyOn(tmpWrapper);
             }
-            HashCodeArrayWrapper<Task> tabooWrapper = new HashCodeArrayWrapper<>(bestLocalOrder.tasks);
-            tabooQueue.offer(tabooWrapper);
-            tabooSet.add(tabooWrapper);
+            moves.apply(bestMove, current);
+            if(bestLocalMakespan == Integer.MAX_VALUE) {
+                bestLocalMakespan = neighborEvaluator.evaluate(current);
+                if(bestLocalMakespan < 0) {
+                    // the insertion created a cycle (tasks of zero duration)
+                    moves.undo(bestMove, current);
+                    continue;
+                }
+            }
+            // the move is kept : forbid to put the tasks back in their previous order
+            forbidReverse(moves.machines[bestMove], moves.froms[bestMove], moves.tos[bestMove], current, taboo,
+                    iteration + dureeTaboo);
             if(bestLocalMakespan < bestMakespan) {
-                bestOrder = bestLocalOrder;
+                bestOrder = current.clone();
                 bestMakespan = bestLocalMakespan;
+                lastImprovement = iteration;
+                elite.addFirst(bestOrder);
+                if(elite.size() > ELITE_SIZE) {
+                    elite.removeLast();
+                }
             }
-
         }
-        return new Result(instance, bestOrder.toSchedule(), Result.ExitCause.NotProvedOptimal);
+        return bestOrder;
     }
 
-    /** Returns a list of all blocks of the critical path. */
-    List<Block> blocksOfCriticalPath(ResourceOrder order) {
-        List<Block> blocks = new ArrayList<>();
-        List<Task> criticalPath = order.toSchedule().criticalPath();
-        int machine = -1;
-        int firstTask = 0;
-        int consecutiveTasks = 0;
-        for(Task t : criticalPath) {
-            int m = order.instance.machine(t.job, t.task);
-            if(m != machine) {
-                if(consecutiveTasks >= 2) {
-                    blocks.add(new Block(machine, firstTask, firstTask + consecutiveTasks - 1));
-                }
-                machine = m;
-                firstTask = Arrays.asList(order.tasks[m]).indexOf(t);
-                consecutiveTasks = 1;
-            } else {
-                consecutiveTasks++;
-            }
-        }
-        if(consecutiveTasks >= 2) {
-            blocks.add(new Block(machine, firstTask, firstTask + consecutiveTasks - 1));
-        }
-        return blocks;
+    /** Restarts the walk from a random perturbation of one of the elite solutions, with an empty taboo list. */
+    void restart(CompactResourceOrder current, Deque<CompactResourceOrder> elite, TabooList taboo, Random random) {
+        current.copyFrom(new ArrayList<>(elite).get(random.nextInt(elite.size())));
+        perturb(current, 1 + random.nextInt(MAX_PERTURBATION), random);
+        taboo.clear();
     }
 
-    /** For a given block, return the possible swaps for the Nowicki and Smutnicki neighborhood */
-    List<Swap> neighbors(Block block) {
-        List<Swap> neighbors = new LinkedList<>();
-        if(block.lastTask == block.firstTask + 1) {
-            neighbors.add(new Swap(block.machine, block.firstTask, block.lastTask));
+    /** First iteration at which moving the task at index from to index to on the machine is not taboo : the move must
+     * not execute again two tasks in an order forbidden by the taboo list. */
+    static int expiry(int machine, int from, int to, CompactResourceOrder order, TabooList taboo) {
+        int job = order.job(machine, from);
+        int expiry = 0;
+        if(from < to) {
+            // the moved task is executed after the tasks it passes over
+            for(int i = from + 1; i <= to; i++)
+                expiry = Math.max(expiry, taboo.expiry(machine, order.job(machine, i), job));
         } else {
-            neighbors.add(new Swap(block.machine, block.firstTask, block.firstTask + 1));
-            neighbors.add(new Swap(block.machine, block.lastTask - 1, block.lastTask));
+            for(int i = to; i < from; i++)
+                expiry = Math.max(expiry, taboo.expiry(machine, job, order.job(machine, i)));
         }
-        return neighbors;
+        return expiry;
     }
 
-    static class HashCodeArrayWrapper<T> {
-
-        private static final List<Integer> powers = new ArrayList<>();
-
-        static {
-            powers.add(1);
-        }
-
-        private final T[][] array;
-        private boolean hashCodeComputed = false;
-        private int hashCode;
-        private final int subArrayLength;
-        private final int totalLength;
-
-        HashCodeArrayWrapper(T[][] array) {
-            this.array = array;
-            subArrayLength = array[0].length;
-            totalLength = array.length * subArrayLength;
-            verifySizes();
-        }
-
-        void set(int i, int j, T val) {
-            T old = array[i][j];
-            int diff = objectHashCode(val) - objectHashCode(old);
-            array[i][j] = val;
-            hashCode += diff * getPower(totalLength - 1 - index(i, j));
-        }
-
-        T get(int i, int j) {
-            return array[i][j];
-        }
-
-        int recomputeHashCode() {
-            computeHashCode();
-            return hashCode;
+    /** Forbids to put the tasks passed over by the move back in their previous order with the moved task, until the
+     * given iteration. The move of the task at index from to index to has already been applied on the order. */
+    static void forbidReverse(int machine, int from, int to, CompactResourceOrder order, TabooList taboo, int until) {
+        // the moved task is now at position to, the tasks it passed over are between from and to
+        int job = order.job(machine, to);
+        if(from < to) {
+            for(int i = from; i < to; i++)
+                taboo.forbid(machine, job, order.job(machine, i), until);
+        } else {
+            for(int i = to + 1; i <= from; i++)
+                taboo.forbid(machine, order.job(machine, i), job, until);
         }
+    }
 
-        @Override
-        public int hashCode() {
-            if(!hashCodeComputed) {
-                computeHashCode();
-                hashCodeComputed = true;
+    /** Applies the given number of random swaps of the first two or of the last two tasks of the critical blocks,
+     * which keeps the solution feasible. */
+    void perturb(CompactResourceOrder order, int strength, Random random) {
+        MoveEvaluator evaluator = new MoveEvaluator(order.instance);
+        for(int k = 0; k < strength; k++) {
+            evaluator.evaluate(order);
+            int numBlocks = evaluator.criticalBlocks();
+            if(numBlocks == 0) {
+                return;
             }
-            return hashCode;
+            int b = random.nextInt(numBlocks);
+            int t1 = random.nextBoolean() ? evaluator.blocks[3 * b + 1] : evaluator.blocks[3 * b + 2] - 1;
+            order.swap(evaluator.blocks[3 * b], t1, t1 + 1);
         }
+    }
 
-        @Override
-        public boolean equals(Object obj) {
-            if(this == obj) {
-                return true;
-            }
-            if(!(obj instanceof HashCodeArrayWrapper)) {
-                return false;
-            }
-            HashCodeArrayWrapper other = (HashCodeArrayWrapper) obj;
-            for(int i = 0; i < array.length; i++) {
-                if(!Arrays.deepEquals(array[i], other.array[i])) {
-                    return false;
-                }
-            }
-            return true;
-        }
+    /** Taboo memory based on move attributes.
+     *
+     * When the tasks of two jobs a and b are swapped on a machine (a was executed before b), executing a before b
+     * again on this machine becomes taboo until a given iteration. The memory is a numMachines x numJobs x numJobs
+     * array of expiry iterations : checking a move is O(1) and the memory does not depend on the tenure.
+     */
+    static class TabooList {
 
-        private void verifySizes() {
-            int size = array[0].length;
-            for(Object[] a : array) {
-                if(a.length != size) {
-                    throw new IllegalArgumentException("Sub arrays lengths must equal");
-                }
-            }
+        private final int numJobs;
+        /** expiry[(machine * numJobs + first) * numJobs + second] is the first iteration at which executing
+         * first before second on the machine is allowed again */
+        private final int[] expiry;
+
+        TabooList(Instance instance) {
+            numJobs = instance.numJobs;
+            expiry = new int[instance.numMachines * numJobs * numJobs];
         }
 
-        private void computeHashCode() {
-            int hashCode = 1;
-            for(Object[] a : array) {
-                for(Object o : a) {
-                    hashCode = hashCode * 31 + objectHashCode(o);
-                }
-            }
-            this.hashCode = hashCode;
+        /** Forbids to execute the task of job first before the one of job second on the machine
+         * until the given iteration (excluded). */
+        void forbid(int machine, int first, int second, int until) {
+            expiry[(machine * numJobs + first) * numJobs + second] = until;
         }
 
-        private static int getPower(int index) {
-            if(index >= powers.size()) {
-                int lastPower = powers.get(powers.size() - 1);
-                for(int i = powers.size(); i <= index; i++) {
-                    lastPower *= 31;
-                    powers.add(lastPower);
-                }
-            }
-            return powers.get(index);
+        /** First iteration at which executing first before second on the machine is allowed. */
+        int expiry(int machine, int first, int second) {
+            return expiry[(machine * numJobs + first) * numJobs + second];
         }
 
-        private int index(int i, int j) {
-            return i * subArrayLength + j;
+        boolean isTaboo(int machine, int first, int second, int iteration) {
+            return expiry(machine, first, second) > iteration;
         }
 
-        private int objectHashCode(Object val) {
-            return (val == null ? 0 : val.hashCode());
+        void clear() {
+            Arrays.fill(expiry, 0);
         }
     }
 
@@ -0,0 +1,117 @@
+package jobshop;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class InstanceRepositoryTests {
+
+    /** one job of one task : 1 task in the cache */
+    private static final String SMALL = "1 1\n0 5\n";
+    /** two jobs of two tasks : 4 tasks in the cache */
+    private static final String LARGE = "2 2\n0 1 1 2\n1 3 0 4\n";
+
+    @Test
+    public void testSelect() throws IOException {
+        Path directory = directory("la01", "la02", "la10", "la21", "ta01", "ft06", "README.md", "best-known.txt");
+        try {
+            InstanceRepository repository = new InstanceRepository(directory, InstanceRepository.DEFAULT_CAPACITY);
+            // documentation and best known results are not instances
+            assert repository.names().equals(Arrays.asList("ft06", "la01", "la02", "la10", "la21", "ta01"));
+            assert !repository.contains("README.md") && !repository.contains("best-known.txt");
+            assert repository.contains("la01") && !repository.contains("la03");
+
+            assert repository.select("la*").equals(Arrays.asList("la01", "la02", "la10", "la21"));
+            assert repository.select("la0?").equals(Arrays.asList("la01", "la02"));
+            assert repository.select("la[0-1]?").equals(Arrays.asList("la01", "la02", "la10"));
+            assert repository.select("{ft,ta}*").equals(Arrays.asList("ft06", "ta01"));
+            assert repository.select("ft06").equals(Arrays.asList("ft06"));
+            assert repository.select("abz*").isEmpty();
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void testEviction() throws IOException {
+        Path directory = directory("a", "b", "c", "large");
+        try {
+            InstanceRepository repository = new InstanceRepository(directory, 2);
+            Instance a = repository.get("a");
+            Instance b = repository.get("b");
+            assert repository.get("a") == a && repository.get("b") == b;
+
+            // a is used after b : b is the least recently used one when c comes in
+            assert repository.get("a") == a;
+            Instance c = repository.get("c");
+            assert repository.get("a") == a && repository.get("c") == c;
+            Instance b2 = repository.get("b");
+            assert b2 != b && b2.numJobs == 1;
+            // b evicted a, the least recently used one
+            assert repository.get("c") == c;
+            assert repository.get("a") != a;
+
+            // an instance larger than the capacity is kept alone
+            Instance large = repository.get("large");
+            assert repository.get("large") == large;
+            assert repository.get("a") != a;
+            assert repository.get("large") != large;
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void testBestKnownResults() throws IOException {
+        Path file = Files.createTempFile("best-known", ".txt");
+        try {
+            write(file, "# instance makespan\nft06 55\n\n  la01\t666  # comment\nft10 930\n");
+            Map<String, Integer> results = BestKnownResult.read(file);
+            assert results.size() == 3;
+            assert results.get("ft06") == 55 && results.get("la01") == 666 && results.get("ft10") == 930;
+
+            for(String malformed : new String[] {"ft06 55\nft10\n", "ft06 55 60\n", "ft06 fifty\n"}) {
+                write(file, malformed);
+                try {
+                    BestKnownResult.read(file);
+                    assert false;
+                } catch (IOException e) {
+                    // the line is reported
+                    assert e.getMessage().contains("line " + (malformed.startsWith("ft06 55\n") ? 2 : 1));
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+
+        // the data file of the repository
+        assert BestKnownResult.isKnown("ft06") && BestKnownResult.of("ft06") == 55;
+        assert !BestKnownResult.isKnown("unknown");
+    }
+
+    /** Temporary directory containing the given files : small instances, except "large". */
+    private static Path directory(String... names) throws IOException {
+        Path directory = Files.createTempDirectory("instances");
+        for(String name : names)
+            write(directory.resolve(name), name.equals("large") ? LARGE : SMALL);
+        return directory;
+    }
+
+    private static void write(Path file, String text) throws IOException {
+        Files.write(file, text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try(Stream<Path> files = Files.list(directory)) {
+            for(Path file : (Iterable<Path>) files::iterator)
+                Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+}
@@ -3,12 +3,25 @@ package jobshop.encodings;
 import jobshop.Instance;
 import jobshop.Result;
 import jobshop.Schedule;
+import jobshop.ScheduleValidator;
 import jobshop.Solver;
 import jobshop.solvers.BasicSolver;
+import jobshop.solvers.BranchAndBoundSolver;
+import jobshop.solvers.DescentSolver;
+import jobshop.solvers.DispatchRule;
+import jobshop.solvers.GluttonousSolver;
+import jobshop.solvers.LowerBounds;
+import jobshop.solvers.Neighborhood;
+import jobshop.solvers.ParallelBranchAndBoundSolver;
+import jobshop.solvers.TabooSolver;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 
 public class EncodingTests {
 
@@ -127,6 +140,302 @@ public class EncodingTests {
         assert sched.makespan() == 12;
     }
 
+    @Test
+    public void testCompactResourceOrder() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+
+        ResourceOrder enc = new ResourceOrder(instance);
+        enc.tasks[0][0] = new Task(0, 0);
+        enc.tasks[0][1] = new Task(1, 1);
+        enc.tasks[1][0] = new Task(1, 0);
+        enc.tasks[1][1] = new Task(0, 1);
+        enc.tasks[2][0] = new Task(0, 2);
+        enc.tasks[2][1] = new Task(1, 2);
+
+        CompactResourceOrder compact = new CompactResourceOrder(enc);
+        assert compact.task(0, 1) == 1;
+        assert compact.toSchedule().makespan() == 12;
+
+        ResourceOrder back = compact.toResourceOrder();
+        for(int m = 0; m < instance.numMachines; m++) {
+            for(int i = 0; i < instance.numJobs; i++) {
+                assert back.tasks[m][i].equals(enc.tasks[m][i]);
+            }
+        }
+
+        // numéro de jobs : 1 2 2 1 1 2 (cf exercices)
+        JobNumbers jobNumbers = new JobNumbers(instance);
+        jobNumbers.jobs[jobNumbers.nextToSet++] = 0;
+        jobNumbers.jobs[jobNumbers.nextToSet++] = 1;
+        jobNumbers.jobs[jobNumbers.nextToSet++] = 1;
+        jobNumbers.jobs[jobNumbers.nextToSet++] = 0;
+        jobNumbers.jobs[jobNumbers.nextToSet++] = 0;
+        jobNumbers.jobs[jobNumbers.nextToSet++] = 1;
+        assert new CompactResourceOrder(jobNumbers).equals(compact);
+        assert compact.toJobNumbers().toSchedule().makespan() == 12;
+
+        CompactResourceOrder copy = compact.clone();
+        copy.swap(0, 0, 1);
+        assert !copy.equals(compact);
+        copy.swap(0, 0, 1);
+        assert copy.equals(compact) && copy.hashCode() == compact.hashCode();
+        copy.move(0, 0, 1);
+        assert copy.job(0, 0) == compact.job(0, 1) && copy.job(0, 1) == compact.job(0, 0);
+        copy.move(0, 1, 0);
+        assert copy.equals(compact);
+    }
+
+    @Test
+    public void testInstanceIndex() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+
+        // job 1 : (m1, 2) (m0, 2) (m2, 4)
+        assert instance.task_with_machine(1, 0) == 1;
+        assert instance.task_with_machine(1, 2) == 2;
+        assert instance.machine(instance.numTasks + 1) == 0;
+        assert instance.duration(instance.numTasks + 2) == 4;
+        assert instance.totalWork(0) == 8;
+        assert instance.remainingWork(1, 1) == 6;
+        assert instance.remainingWork(1, instance.numTasks) == 0;
+    }
+
+    @Test
+    public void testInstanceFiles() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+        Path file = Files.createTempFile("aaa1", ".bin");
+        try {
+            instance.toBinaryFile(file);
+            Instance reloaded = Instance.fromFile(file);
+            assert reloaded.numJobs == instance.numJobs && reloaded.numTasks == instance.numTasks;
+            for(int id = 0; id < instance.numJobs * instance.numTasks; id++) {
+                assert reloaded.machine(id) == instance.machine(id) && reloaded.duration(id) == instance.duration(id);
+            }
+            byte[] binary = Files.readAllBytes(file);
+
+            // bad magic number : the file is read as text, which it is not
+            byte[] badMagic = binary.clone();
+            badMagic[0] = 'X';
+            assert !isReadable(file, badMagic);
+            // unsupported version
+            byte[] badVersion = binary.clone();
+            badVersion[7] = 2;
+            assert !isReadable(file, badVersion);
+            // truncated file
+            assert !isReadable(file, Arrays.copyOf(binary, binary.length - 4));
+
+            // comments up to the end of the file, without a final line break
+            Files.write(file, "2 3 # jobs tasks\n0 3 1 3 2 3\n1 2 0 2 2 4 # last job".getBytes(StandardCharsets.US_ASCII));
+            Instance commented = Instance.fromFile(file);
+            assert commented.numJobs == 2 && commented.numTasks == 3;
+            assert commented.machine(commented.numTasks + 2) == 2 && commented.duration(commented.numTasks + 2) == 4;
+            // truncated text
+            Files.write(file, "2 3\n0 3 1 3 2 3\n1 2 0 2".getBytes(StandardCharsets.US_ASCII));
+            assert !isReadable(file, Files.readAllBytes(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /** Writes the content into the file and returns whether it can be read as an instance. */
+    private static boolean isReadable(Path file, byte[] content) throws IOException {
+        Files.write(file, content);
+        try {
+            Instance.fromFile(file);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Test
+    public void testScheduleEvaluator() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+
+        ResourceOrder enc = new ResourceOrder(instance);
+        enc.tasks[0][0] = new Task(0, 0);
+        enc.tasks[0][1] = new Task(1, 1);
+        enc.tasks[1][0] = new Task(1, 0);
+        enc.tasks[1][1] = new Task(0, 1);
+        enc.tasks[2][0] = new Task(0, 2);
+        enc.tasks[2][1] = new Task(1, 2);
+
+        ScheduleEvaluator evaluator = new ScheduleEvaluator(instance);
+        int[] startTimes = new int[instance.numJobs * instance.numTasks];
+        assert evaluator.evaluate(enc, startTimes) == 12;
+        Schedule sched = enc.toSchedule();
+        for(int j = 0; j < instance.numJobs; j++) {
+            for(int t = 0; t < instance.numTasks; t++) {
+                assert sched.startTime(j, t) == startTimes[j * instance.numTasks + t];
+            }
+        }
+
+        // (1,1) before (0,0) on machine 0 and (0,1) before (1,0) on machine 1 : cycle
+        enc.tasks[0][0] = new Task(1, 1);
+        enc.tasks[0][1] = new Task(0, 0);
+        enc.tasks[1][0] = new Task(0, 1);
+        enc.tasks[1][1] = new Task(1, 0);
+        assert evaluator.evaluate(enc, startTimes) == -1;
+
+        // partial solutions : no machine sequenced, then only machine 0 with (1,1) before (0,0)
+        int[][] sequences = new int[instance.numMachines][];
+        assert evaluator.evaluate(sequences, startTimes) == 8;
+        assert Arrays.equals(startTimes, new int[] {0, 3, 6, 0, 2, 4});
+        sequences[0] = new int[] {1 * instance.numTasks + 1, 0};
+        assert evaluator.evaluate(sequences, startTimes) == 12;
+        assert Arrays.equals(startTimes, new int[] {4, 7, 10, 0, 2, 4});
+        assert evaluator.machineSuccessor(1 * instance.numTasks + 1) == 0;
+        assert evaluator.machineSuccessor(1 * instance.numTasks) == -1;
+    }
+
+    @Test
+    public void testScheduleValidator() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+
+        // job 0 : (m0, 3) (m1, 3) (m2, 2)   job 1 : (m1, 2) (m0, 2) (m2, 4)
+        int[][] times = { {0, 3, 6}, {0, 3, 8} };
+        assert new Schedule(instance, times).isValid();
+
+        // (0,1) starts before the end of (0,0), and (0,2) and (1,2) overlap on machine 2
+        times = new int[][] { {0, 2, 6}, {0, 3, 7} };
+        ScheduleValidator.Report report = new ScheduleValidator(10, true).validate(new Schedule(instance, times));
+        assert !report.isValid();
+        assert report.violations.size() == 2;
+        assert report.violations.get(0).kind == ScheduleValidator.Violation.Kind.JOB_PRECEDENCE;
+        assert report.violations.get(0).second.equals(new Task(0, 1));
+        assert report.violations.get(1).kind == ScheduleValidator.Violation.Kind.MACHINE_OVERLAP;
+        assert report.violations.get(1).first.equals(new Task(0, 2));
+        assert new Schedule(instance, times).validate(1).violations.size() == 1;
+    }
+
+    @Test
+    public void testLowerBounds() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+
+        LowerBounds bounds = new LowerBounds(instance, true);
+        assert bounds.jobBound == 8;
+        // machine 2 : durations 2 and 4, heads 6 and 4, tails 0
+        assert bounds.machineBound == 10;
+        assert bounds.oneMachineBound == 10;
+        // the two jobs alone : the optimal makespan of the instance
+        assert bounds.twoJobBound == 11;
+        assert bounds.value() == 11;
+        assert new LowerBounds(instance).twoJobBound == 0;
+    }
+
+    @Test
+    public void testDispatchRules() throws IOException {
+        // fewer jobs than machines
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+
+        DispatchRule[] rules = { DispatchRule.SPT, DispatchRule.LPT, DispatchRule.SRPT, DispatchRule.LRPT,
+                DispatchRule.MWKR, DispatchRule.FIFO,
+                DispatchRule.weighted(new int[] {1, 2}, DispatchRule.SPT, DispatchRule.MWKR) };
+        for(DispatchRule rule : rules) {
+            for(boolean active : new boolean[] {false, true}) {
+                Schedule schedule = new GluttonousSolver(rule, active).solve(instance, Long.MAX_VALUE).schedule;
+                assert schedule.isValid();
+                assert schedule.isCriticalPath(schedule.criticalPath());
+            }
+        }
+        // SPT starts (0, 0) and (1, 0) at 0, then (1, 1) waits for (0, 0) : (0, 1) at 3, (1, 1) at 3, (1, 2) at 5,
+        // (0, 2) at 9
+        Schedule spt = new GluttonousSolver(DispatchRule.SPT, false).solve(instance, Long.MAX_VALUE).schedule;
+        assert spt.makespan() == 11;
+
+        // (0, 1) and (1, 1) can both start at 5 on machine 1, but job 1 is ready since 1 and job 0 since 3
+        Instance queue = textInstance("3 3\n0 3 1 2 2 1\n2 1 1 2 0 1\n1 5 0 1 2 1\n");
+        Schedule fifo = new GluttonousSolver(DispatchRule.FIFO, false).solve(queue, Long.MAX_VALUE).schedule;
+        assert fifo.startTime(1, 1) == 5;
+        assert fifo.startTime(0, 1) == 7;
+    }
+
+    @Test
+    public void testBranchAndBound() throws IOException {
+        Solver solver = new BranchAndBoundSolver();
+        String[] names = {"aaa1", "ft06"};
+        int[] optima = {11, 55};
+        for(int i = 0; i < names.length; i++) {
+            Instance instance = Instance.fromFile(Paths.get("instances", names[i]));
+            Result result = solver.solve(instance, Long.MAX_VALUE);
+            assert result.cause == Result.ExitCause.ProvedOptimal;
+            assert result.schedule.isValid();
+            assert result.schedule.makespan() == optima[i];
+            assert result.lowerBound == optima[i];
+        }
+
+        // a zero duration task completes first : it must be schedulable by the Giffler and Thompson completion
+        Result zero = solver.solve(zeroDurationInstance(), Long.MAX_VALUE);
+        assert zero.cause == Result.ExitCause.ProvedOptimal;
+        assert zero.schedule.isValid();
+        assert zero.schedule.makespan() == 32;
+        Result orb07 = solver.solve(Instance.fromFile(Paths.get("instances/orb07")), System.currentTimeMillis() + 200);
+        assert orb07.schedule.isValid();
+
+        // too hard to be proved in a few hundred milliseconds
+        Instance instance = Instance.fromFile(Paths.get("instances/la16"));
+        Result result = solver.solve(instance, System.currentTimeMillis() + 200);
+        assert result.cause == Result.ExitCause.Timeout;
+        assert result.schedule.isValid();
+        assert result.lowerBound <= result.schedule.makespan();
+    }
+
+    /** 4 x 3 instance whose first task has a zero duration, its optimal makespan is 32. */
+    private static Instance zeroDurationInstance() throws IOException {
+        return textInstance("4 3\n2 0 0 9 1 1\n1 6 2 9 0 2\n1 8 2 3 0 7\n1 9 0 7 2 1\n");
+    }
+
+    /** Instance read from the given text. */
+    private static Instance textInstance(String text) throws IOException {
+        Path file = Files.createTempFile("instance", "");
+        try {
+            Files.write(file, text.getBytes(StandardCharsets.US_ASCII));
+            return Instance.fromFile(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testParallelBranchAndBound() throws IOException {
+        Instance[] instances = {
+                Instance.fromFile(Paths.get("instances/ft06")),
+                Instance.fromFile(Paths.get("instances/la03")),
+                zeroDurationInstance() };
+        for(Instance instance : instances) {
+            Result sequential = new BranchAndBoundSolver().solve(instance, Long.MAX_VALUE);
+            Result parallel = new ParallelBranchAndBoundSolver(2).solve(instance, Long.MAX_VALUE);
+            assert sequential.cause == Result.ExitCause.ProvedOptimal;
+            assert parallel.cause == Result.ExitCause.ProvedOptimal;
+            assert parallel.schedule.isValid();
+            assert parallel.schedule.makespan() == sequential.schedule.makespan();
+        }
+
+        // the ForkJoin tasks complete solutions with zero duration tasks too
+        Instance orb07 = Instance.fromFile(Paths.get("instances/orb07"));
+        Result result = new ParallelBranchAndBoundSolver(2).solve(orb07, System.currentTimeMillis() + 200);
+        assert result.schedule.isValid();
+        assert result.lowerBound <= result.schedule.makespan();
+    }
+
+    @Test
+    public void testNeighborhoods() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Solver seed = new BasicSolver();
+        int start = seed.solve(instance, Long.MAX_VALUE).schedule.makespan();
+
+        for(int neighborhood : new int[] {Neighborhood.N5, Neighborhood.N6, Neighborhood.N7}) {
+            Solver[] solvers = {
+                    new DescentSolver(seed, DescentSolver.FIRST_IMPROVEMENT, neighborhood),
+                    new DescentSolver(seed, DescentSolver.STEEPEST, neighborhood),
+                    new TabooSolver(200, 10, seed, 0, neighborhood) };
+            for(Solver solver : solvers) {
+                Schedule schedule = solver.solve(instance, Long.MAX_VALUE).schedule;
+                assert schedule.isValid();
+                assert schedule.makespan() < start;
+            }
+        }
+    }
+
     @Test
     public void testBasicSolver() throws IOException {
         Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
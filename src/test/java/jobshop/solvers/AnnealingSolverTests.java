@@ -0,0 +1,107 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.encodings.CompactResourceOrder;
+import jobshop.encodings.ResourceOrder;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+public class AnnealingSolverTests {
+
+    private static final int[] COOLINGS = {
+            AnnealingSolver.GEOMETRIC, AnnealingSolver.LINEAR, AnnealingSolver.LUNDY_MEES };
+
+    @Test
+    public void testTemperature() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        double initial = 100;
+        double end = AnnealingSolver.FINAL_RATIO * initial;
+        // temperatures at the middle of the phase : initial (end / initial)^0.5, (initial + end) / 2, and
+        // initial / (1 + (initial / end - 1) / 2)
+        double[] middles = {initial * Math.sqrt(AnnealingSolver.FINAL_RATIO), (initial + end) / 2,
+                initial / (1 + (1 / AnnealingSolver.FINAL_RATIO - 1) / 2)};
+        for(int c = 0; c < COOLINGS.length; c++) {
+            AnnealingSolver.Annealing annealing = annealing(COOLINGS[c], instance, 0);
+            assert close(annealing.temperature(initial, 0), initial);
+            assert close(annealing.temperature(initial, 0.5), middles[c]);
+            assert close(annealing.temperature(initial, 1), end);
+            // the temperature stays at the end one after the deadline
+            assert close(annealing.temperature(initial, 2), end);
+            assert annealing.temperature(initial, 0.25) > annealing.temperature(initial, 0.5);
+        }
+        // geometric cooling is above Lundy and Mees, and below linear cooling
+        assert middles[2] < middles[0] && middles[0] < middles[1];
+    }
+
+    @Test
+    public void testCalibration() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        CompactResourceOrder start = new CompactResourceOrder(new ResourceOrder(
+                new BasicSolver().solve(instance, Long.MAX_VALUE).schedule));
+
+        AnnealingSolver.Annealing annealing = annealing(AnnealingSolver.GEOMETRIC, instance, 0);
+        annealing.current.copyFrom(start);
+        int makespan = annealing.load();
+        double temperature = annealing.calibrate(makespan);
+
+        // the average worsening is accepted with probability INITIAL_ACCEPTANCE : it lies between the smallest and the
+        // largest worsening of the moves that can be drawn
+        double average = -temperature * Math.log(AnnealingSolver.INITIAL_ACCEPTANCE);
+        MoveEvaluator evaluator = annealing.evaluator;
+        int numBlocks = evaluator.criticalBlocks();
+        int smallest = Integer.MAX_VALUE, largest = 0;
+        for(int b = 0; b < numBlocks; b++) {
+            int machine = evaluator.blocks[3 * b];
+            int first = evaluator.blocks[3 * b + 1];
+            int last = evaluator.blocks[3 * b + 2];
+            for(int from = first; from <= last; from++) {
+                for(int to : new int[] {from + 1, first, last}) {
+                    if(to == from || to > last)
+                        continue;
+                    int delta = evaluator.estimateMove(machine, from, to) - makespan;
+                    if(delta > 0) {
+                        smallest = Math.min(smallest, delta);
+                        largest = Math.max(largest, delta);
+                    }
+                }
+            }
+        }
+        assert largest > 0;
+        assert smallest - 1e-9 <= average && average <= largest + 1e-9;
+
+        // same seed, same temperature
+        AnnealingSolver.Annealing other = annealing(AnnealingSolver.GEOMETRIC, instance, 0);
+        other.current.copyFrom(start);
+        assert other.calibrate(other.load()) == temperature;
+    }
+
+    @Test
+    public void testSolve() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        Solver seed = new GluttonousSolver(GluttonousSolver.PRIORITY_SPT);
+        int start = seed.solve(instance, Long.MAX_VALUE).schedule.makespan();
+        // a short stagnation makes the search reheat many times before the deadline
+        for(int cooling : COOLINGS) {
+            AnnealingSolver solver = new AnnealingSolver(cooling, 1000, seed);
+            long deadline = System.currentTimeMillis() + 300;
+            Result result = solver.solve(instance, deadline);
+            assert System.currentTimeMillis() <= deadline + 500;
+            assert result.schedule.isValid();
+            assert result.schedule.makespan() <= start;
+        }
+    }
+
+    private static AnnealingSolver.Annealing annealing(int cooling, Instance instance, long seed) {
+        AnnealingSolver solver = new AnnealingSolver(cooling, 1000, new BasicSolver());
+        return solver.new Annealing(instance, new Random(seed));
+    }
+
+    private static boolean close(double value, double expected) {
+        return Math.abs(value - expected) <= 1e-9 * Math.max(1, Math.abs(expected));
+    }
+}
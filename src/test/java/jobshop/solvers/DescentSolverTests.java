@@ -0,0 +1,58 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.encodings.CompactResourceOrder;
+import jobshop.encodings.ResourceOrder;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class DescentSolverTests {
+
+    @Test
+    public void testLocalOptimum() throws IOException {
+        for(String name : new String[] {"ft10", "la24"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances", name));
+            CompactResourceOrder start = new CompactResourceOrder(new ResourceOrder(
+                    new BasicSolver().solve(instance, Long.MAX_VALUE).schedule));
+            MoveEvaluator evaluator = new MoveEvaluator(instance);
+            MoveEvaluator neighborEvaluator = new MoveEvaluator(instance);
+            int[] modes = {DescentSolver.FIRST_IMPROVEMENT, DescentSolver.STEEPEST, DescentSolver.RANDOMIZED};
+            for(int neighborhood : new int[] {Neighborhood.N5, Neighborhood.N6, Neighborhood.N7}) {
+                for(int mode : modes) {
+                    DescentSolver descent = new DescentSolver(new BasicSolver(), mode, neighborhood);
+                    CompactResourceOrder found = descent.search(start, 0, Long.MAX_VALUE);
+                    int makespan = evaluator.load(found);
+
+                    // no neighbor is better, whatever its estimate
+                    Neighborhood moves = new Neighborhood(instance, neighborhood);
+                    int numMoves = moves.generate(evaluator);
+                    for(int k = 0; k < numMoves; k++) {
+                        moves.apply(k, found);
+                        int neighborMakespan = neighborEvaluator.evaluate(found);
+                        moves.undo(k, found);
+                        assert neighborMakespan < 0 || neighborMakespan >= makespan;
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRandomizedOrder() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        CompactResourceOrder start = new CompactResourceOrder(new ResourceOrder(
+                new BasicSolver().solve(instance, Long.MAX_VALUE).schedule));
+        DescentSolver descent = new DescentSolver(new BasicSolver(), DescentSolver.RANDOMIZED, Neighborhood.N5, 1);
+        DescentSolver same = new DescentSolver(new BasicSolver(), DescentSolver.RANDOMIZED, Neighborhood.N5, 1);
+
+        // the same seed gives the same descents, and the random order goes on from one search to the next
+        CompactResourceOrder first = descent.search(start, 0, Long.MAX_VALUE);
+        assert same.search(start, 0, Long.MAX_VALUE).equals(first);
+        boolean differs = false;
+        for(int k = 0; k < 10 && !differs; k++)
+            differs = !descent.search(start, 0, Long.MAX_VALUE).equals(first);
+        assert differs;
+    }
+}
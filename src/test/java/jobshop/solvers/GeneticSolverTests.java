@@ -0,0 +1,110 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+public class GeneticSolverTests {
+
+    @Test
+    public void testCrossovers() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        GeneticSolver solver = new GeneticSolver(2, GeneticSolver.JOX, 0, 0, 1);
+        GeneticSolver.Breeder breeder = solver.new Breeder(instance, new GeneticSolver.Population(2), 0, 0, Long.MAX_VALUE);
+        Random random = new Random(0);
+        for(int trial = 0; trial < 200; trial++) {
+            int[] first = randomChromosome(instance, random);
+            int[] second = randomChromosome(instance, random);
+            int[] firstCopy = first.clone(), secondCopy = second.clone();
+            int[] jox = breeder.jox(first, second);
+            int[] gox = breeder.gox(first, second);
+            assert isPermutationWithRepetition(instance, jox);
+            assert isPermutationWithRepetition(instance, gox);
+            // the parents are not modified
+            assert Arrays.equals(first, firstCopy) && Arrays.equals(second, secondCopy);
+
+            // both crossovers reproduce identical parents
+            assert Arrays.equals(breeder.jox(first, first.clone()), first);
+            assert Arrays.equals(breeder.gox(first, first.clone()), first);
+        }
+    }
+
+    @Test
+    public void testPopulation() {
+        GeneticSolver.Population population = new GeneticSolver.Population(4);
+        for(int makespan : new int[] {50, 40, 60, 45})
+            population.add(individual(makespan));
+        population.sort();
+        assertMakespans(population, 40, 45, 50, 60);
+
+        // worse than the worst individual, or a makespan already present : rejected
+        population.insert(individual(70));
+        population.insert(individual(60));
+        population.insert(individual(45));
+        assertMakespans(population, 40, 45, 50, 60);
+
+        // the worst individual is dropped, the order is kept
+        population.insert(individual(42));
+        assertMakespans(population, 40, 42, 45, 50);
+        population.insert(individual(30));
+        assertMakespans(population, 30, 40, 42, 45);
+        population.insert(individual(44));
+        assertMakespans(population, 30, 40, 42, 44);
+        assert population.best().makespan == 30;
+    }
+
+    @Test
+    public void testSolve() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        // plain and memetic
+        GeneticSolver[] solvers = {
+                new GeneticSolver(20, GeneticSolver.JOX, 0.1, 0, 2),
+                new GeneticSolver(20, GeneticSolver.GOX, 0.1, 10, 2) };
+        for(GeneticSolver solver : solvers) {
+            long deadline = System.currentTimeMillis() + 300;
+            Result result = solver.solve(instance, deadline);
+            assert System.currentTimeMillis() <= deadline + 500;
+            assert result.schedule.isValid();
+        }
+    }
+
+    private static int[] randomChromosome(Instance instance, Random random) {
+        int[] jobs = new int[instance.numJobs * instance.numTasks];
+        for(int k = 0; k < jobs.length; k++)
+            jobs[k] = k / instance.numTasks;
+        for(int k = jobs.length - 1; k > 0; k--) {
+            int other = random.nextInt(k + 1);
+            int tmp = jobs[k];
+            jobs[k] = jobs[other];
+            jobs[other] = tmp;
+        }
+        return jobs;
+    }
+
+    /** Each job appears numTasks times. */
+    private static boolean isPermutationWithRepetition(Instance instance, int[] jobs) {
+        if(jobs.length != instance.numJobs * instance.numTasks)
+            return false;
+        int[] occurrences = new int[instance.numJobs];
+        for(int job : jobs) {
+            if(job < 0 || job >= instance.numJobs || ++occurrences[job] > instance.numTasks)
+                return false;
+        }
+        return true;
+    }
+
+    private static GeneticSolver.Individual individual(int makespan) {
+        return new GeneticSolver.Individual(new int[0], makespan);
+    }
+
+    private static void assertMakespans(GeneticSolver.Population population, int... makespans) {
+        assert population.size() == makespans.length;
+        for(int i = 0; i < makespans.length; i++)
+            assert population.get(i).makespan == makespans[i];
+    }
+}
@@ -0,0 +1,75 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Schedule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+public class GraspSolverTests {
+
+    @Test
+    public void testGreedyConstruction() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        GraspSolver.RandomizedScheduler scheduler = new GraspSolver.RandomizedScheduler(instance, new Random(0));
+        scheduler.alpha = 0;
+        for(DispatchRule rule : new DispatchRule[] {DispatchRule.SPT, DispatchRule.MWKR, DispatchRule.FIFO}) {
+            for(boolean active : new boolean[] {false, true}) {
+                Schedule greedy = new GluttonousSolver(rule, active).solve(instance, Long.MAX_VALUE).schedule;
+                int makespan = scheduler.schedule(rule, active);
+                assert makespan == greedy.makespan();
+                for(int job = 0; job < instance.numJobs; job++) {
+                    for(int task = 0; task < instance.numTasks; task++)
+                        assert scheduler.startTimes[job * instance.numTasks + task] == greedy.startTime(job, task);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRestrictedCandidateList() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        GraspSolver.RandomizedScheduler scheduler = new GraspSolver.RandomizedScheduler(instance, new Random(0));
+        int[] scores = {7, 3, 10, 5};
+        for(int k = 0; k < scores.length; k++) {
+            scheduler.conflict[k] = k;
+            scheduler.scores[k] = scores[k];
+        }
+
+        // alpha = 0 : the greedy choice
+        scheduler.alpha = 0;
+        assert scheduler.choose(scores.length) == 1;
+
+        // alpha = 1 : any candidate
+        scheduler.alpha = 1;
+        boolean[] chosen = new boolean[scores.length];
+        for(int draw = 0; draw < 200; draw++)
+            chosen[scheduler.choose(scores.length)] = true;
+        for(boolean c : chosen)
+            assert c;
+
+        // alpha = 0.5 : the candidates whose score is at most 3 + floor(0.5 (10 - 3)) = 6
+        scheduler.alpha = 0.5;
+        chosen = new boolean[scores.length];
+        for(int draw = 0; draw < 200; draw++)
+            chosen[scheduler.choose(scores.length)] = true;
+        assert chosen[1] && chosen[3] && !chosen[0] && !chosen[2];
+    }
+
+    @Test
+    public void testSolve() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        GraspSolver[] solvers = {
+                new GraspSolver(DispatchRule.MWKR, false, 0.5, 2),
+                new GraspSolver(DispatchRule.SPT, true, 0.3, 1) };
+        for(GraspSolver solver : solvers) {
+            long deadline = System.currentTimeMillis() + 300;
+            Result result = solver.solve(instance, deadline);
+            assert System.currentTimeMillis() <= deadline + 500;
+            assert result.schedule.isValid();
+        }
+    }
+}
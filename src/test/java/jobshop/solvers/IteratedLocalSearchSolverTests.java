@@ -0,0 +1,76 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.encodings.CompactResourceOrder;
+import jobshop.encodings.ResourceOrder;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+public class IteratedLocalSearchSolverTests {
+
+    @Test
+    public void testPerturbationsKeepFeasibility() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        IteratedLocalSearchSolver solver = new IteratedLocalSearchSolver(5, new BasicSolver());
+        IteratedLocalSearchSolver.Kicker kicker = solver.new Kicker(instance, new Random(0));
+        MoveEvaluator evaluator = new MoveEvaluator(instance);
+        CompactResourceOrder start = new CompactResourceOrder(new ResourceOrder(
+                new BasicSolver().solve(instance, Long.MAX_VALUE).schedule));
+
+        // each kind of perturbation on its own, then kicks of every strength
+        for(int kind = 0; kind < 4; kind++) {
+            CompactResourceOrder order = start.clone();
+            int changes = 0;
+            for(int k = 0; k < 500; k++) {
+                CompactResourceOrder before = order.clone();
+                switch(kind) {
+                    case 0:
+                        kicker.randomSwap(order);
+                        break;
+                    case 1:
+                        kicker.blockInsertion(order);
+                        break;
+                    case 2:
+                        kicker.shuffle(order, 2 + k % (instance.numJobs - 1));
+                        break;
+                    default:
+                        kicker.kick(order, 1 + k % 5);
+                }
+                assert evaluator.evaluate(order) >= 0;
+                if(!order.equals(before))
+                    changes++;
+            }
+            assert changes > 0;
+        }
+    }
+
+    @Test
+    public void testStrength() {
+        IteratedLocalSearchSolver solver = new IteratedLocalSearchSolver(4, new BasicSolver());
+        // without improvement : 1, 2, 3, 4, then back to 1
+        int strength = 1;
+        for(int expected : new int[] {2, 3, 4, 1, 2}) {
+            strength = solver.nextStrength(strength, false);
+            assert strength == expected;
+        }
+        // an improvement resets the strength
+        assert solver.nextStrength(3, true) == 1;
+        assert solver.nextStrength(4, true) == 1;
+    }
+
+    @Test
+    public void testSolve() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        GluttonousSolver seed = new GluttonousSolver(GluttonousSolver.PRIORITY_SPT);
+        int start = seed.solve(instance, Long.MAX_VALUE).schedule.makespan();
+        long deadline = System.currentTimeMillis() + 300;
+        Result result = new IteratedLocalSearchSolver(5, seed).solve(instance, deadline);
+        assert System.currentTimeMillis() <= deadline + 500;
+        assert result.schedule.isValid();
+        assert result.schedule.makespan() <= start;
+    }
+}
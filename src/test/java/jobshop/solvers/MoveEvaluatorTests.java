@@ -0,0 +1,52 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Solver;
+import jobshop.encodings.CompactResourceOrder;
+import jobshop.encodings.ResourceOrder;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class MoveEvaluatorTests {
+
+    @Test
+    public void testSwapEstimates() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        for(Solver seed : new Solver[] {new BasicSolver(), new GluttonousSolver(GluttonousSolver.PRIORITY_SPT)}) {
+            CompactResourceOrder order = new CompactResourceOrder(new ResourceOrder(seed.solve(instance, Long.MAX_VALUE).schedule));
+            MoveEvaluator evaluator = new MoveEvaluator(instance);
+            MoveEvaluator neighborEvaluator = new MoveEvaluator(instance);
+            evaluator.load(order);
+
+            // the descents stop at the first estimate that cannot improve : it must be a lower bound
+            Neighborhood swaps = new Neighborhood(instance, Neighborhood.N5);
+            int numSwaps = swaps.generate(evaluator);
+            assert numSwaps > 0;
+            for(int k = 0; k < numSwaps; k++) {
+                int machine = swaps.machines[k];
+                int t1 = swaps.froms[k];
+                assert swaps.tos[k] == t1 + 1;
+                order.swap(machine, t1, t1 + 1);
+                int makespan = neighborEvaluator.evaluate(order);
+                order.swap(machine, t1, t1 + 1);
+                assert makespan >= 0;
+                assert evaluator.estimateSwap(machine, t1, t1 + 1) <= makespan;
+            }
+
+            // the insertions kept by isFeasibleMove never create a cycle
+            for(int type : new int[] {Neighborhood.N6, Neighborhood.N7}) {
+                Neighborhood moves = new Neighborhood(instance, type);
+                int numMoves = moves.generate(evaluator);
+                assert numMoves >= numSwaps;
+                for(int k = 0; k < numMoves; k++) {
+                    assert evaluator.isFeasibleMove(moves.machines[k], moves.froms[k], moves.tos[k]);
+                    moves.apply(k, order);
+                    assert neighborEvaluator.evaluate(order) >= 0;
+                    moves.undo(k, order);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package jobshop.solvers;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class OneMachineSchedulerTests {
+
+    @Test
+    public void testKnownOptimum() {
+        // Schrage starts task 0 at 0 (16), the optimum waits for task 1 (15), and preempting task 0 at 2 gives 14
+        int[] r = {0, 2}, p = {4, 2}, q = {7, 10};
+        OneMachineScheduler scheduler = new OneMachineScheduler(2);
+        int[] order = new int[2];
+        assert scheduler.solve(2, r, p, q, order, 1) == 16;
+        assert order[0] == 0 && order[1] == 1;
+        assert scheduler.solve(2, r, p, q, order, 1000) == 15;
+        assert order[0] == 1 && order[1] == 0;
+        assert scheduler.preemptiveBound(2, r, p, q) == 14;
+    }
+
+    @Test
+    public void testCarlier() {
+        // example of Carlier (1982)
+        int[] r = {10, 13, 11, 20, 30, 0, 30};
+        int[] p = {5, 6, 7, 4, 3, 6, 2};
+        int[] q = {7, 26, 24, 21, 8, 17, 0};
+        int[] rCopy = r.clone(), qCopy = q.clone();
+        OneMachineScheduler scheduler = new OneMachineScheduler(r.length);
+        int[] order = new int[r.length];
+        int value = scheduler.solve(r.length, r, p, q, order, 1000);
+        assert value == 50;
+        assert value(order, r, p, q) == value;
+        // heads and tails are restored
+        assert Arrays.equals(r, rCopy) && Arrays.equals(q, qCopy);
+        assert scheduler.preemptiveBound(r.length, r, p, q) <= value;
+    }
+
+    @Test
+    public void testRandomInstances() {
+        Random random = new Random(0);
+        OneMachineScheduler scheduler = new OneMachineScheduler(10);
+        for(int trial = 0; trial < 300; trial++) {
+            int n = 1 + random.nextInt(6);
+            int[] r = new int[n], p = new int[n], q = new int[n];
+            for(int j = 0; j < n; j++) {
+                r[j] = random.nextInt(20);
+                p[j] = random.nextInt(10);
+                q[j] = random.nextInt(20);
+            }
+            int optimum = bruteForce(r, p, q, new int[n], new boolean[n], 0);
+            int[] order = new int[n];
+
+            int schrage = scheduler.solve(n, r, p, q, order, 1);
+            assert schrage >= optimum && value(order, r, p, q) == schrage;
+            int carlier = scheduler.solve(n, r, p, q, order, Integer.MAX_VALUE);
+            assert carlier == optimum && value(order, r, p, q) == carlier;
+            int bound = scheduler.preemptiveBound(n, r, p, q);
+            assert bound <= optimum;
+            for(int j = 0; j < n; j++)
+                assert bound >= r[j] + p[j] + q[j];
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testCapacity() {
+        new OneMachineScheduler(2).preemptiveBound(3, new int[3], new int[3], new int[3]);
+    }
+
+    /** Value of the sequence, each task starting as soon as possible. */
+    private static int value(int[] order, int[] r, int[] p, int[] q) {
+        int time = 0, value = 0;
+        for(int j : order) {
+            time = Math.max(time, r[j]) + p[j];
+            value = Math.max(value, time + q[j]);
+        }
+        return value;
+    }
+
+    /** Best value of the sequences beginning with the given prefix. */
+    private static int bruteForce(int[] r, int[] p, int[] q, int[] order, boolean[] used, int length) {
+        if(length == order.length)
+            return value(order, r, p, q);
+        int best = Integer.MAX_VALUE;
+        for(int j = 0; j < order.length; j++) {
+            if(used[j])
+                continue;
+            used[j] = true;
+            order[length] = j;
+            best = Math.min(best, bruteForce(r, p, q, order, used, length + 1));
+            used[j] = false;
+        }
+        return best;
+    }
+}
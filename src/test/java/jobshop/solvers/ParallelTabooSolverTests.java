@@ -0,0 +1,88 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.encodings.CompactResourceOrder;
+import jobshop.encodings.ResourceOrder;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class ParallelTabooSolverTests {
+
+    @Test
+    public void testWorkerParameters() {
+        // with few threads, every worker has its own tenure
+        Set<Integer> tenures = new HashSet<>();
+        for(int worker = 0; worker < 4; worker++)
+            tenures.add(ParallelTabooSolver.tenure(worker));
+        assert tenures.size() == 4;
+        // the 16 first workers use all the pairs (rule, tenure)
+        Set<Long> pairs = new HashSet<>();
+        for(int worker = 0; worker < 16; worker++)
+            pairs.add(((long) ParallelTabooSolver.priorityMode(worker) << 32) | ParallelTabooSolver.tenure(worker));
+        assert pairs.size() == 16;
+    }
+
+    @Test
+    public void testSharedBest() throws IOException, InterruptedException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        CompactResourceOrder order = new CompactResourceOrder(instance);
+        SharedBest best = new SharedBest();
+        assert best.get() == null && best.makespan() == Integer.MAX_VALUE;
+        assert best.offer(order, 50);
+        assert !best.offer(order, 50);
+        assert !best.offer(order, 60);
+        assert best.offer(order, 40);
+        assert best.makespan() == 40;
+
+        // concurrent offers : the minimum is kept
+        SharedBest shared = new SharedBest();
+        List<Thread> threads = new ArrayList<>();
+        int[] minima = new int[8];
+        for(int t = 0; t < minima.length; t++) {
+            final int thread = t;
+            threads.add(new Thread(() -> {
+                Random random = new Random(thread);
+                minima[thread] = Integer.MAX_VALUE;
+                for(int k = 0; k < 10000; k++) {
+                    int makespan = 100 + random.nextInt(1000000);
+                    minima[thread] = Math.min(minima[thread], makespan);
+                    shared.offer(new CompactResourceOrder(instance), makespan);
+                }
+            }));
+        }
+        for(Thread thread : threads)
+            thread.start();
+        for(Thread thread : threads)
+            thread.join();
+        int minimum = Integer.MAX_VALUE;
+        for(int m : minima)
+            minimum = Math.min(minimum, m);
+        assert shared.makespan() == minimum && shared.get().makespan == minimum;
+    }
+
+    @Test
+    public void testSolve() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        long deadline = System.currentTimeMillis() + 500;
+        Result result = new ParallelTabooSolver(200, 3).solve(instance, deadline);
+        assert System.currentTimeMillis() <= deadline + 500;
+        assert result.schedule.isValid();
+
+        // the result is at least as good as the start of every worker
+        MoveEvaluator evaluator = new MoveEvaluator(instance);
+        for(int worker = 0; worker < 3; worker++) {
+            GluttonousSolver seed = new GluttonousSolver(ParallelTabooSolver.priorityMode(worker));
+            int start = evaluator.evaluate(new CompactResourceOrder(new ResourceOrder(
+                    seed.solve(instance, Long.MAX_VALUE).schedule)));
+            assert result.schedule.makespan() <= start;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class ShiftingBottleneckSolverTests {
+
+    @Test
+    public void testValidSchedules() throws IOException {
+        for(String name : new String[] {"ft06", "ft10", "la24", "orb07"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances", name));
+            int lowerBound = new LowerBounds(instance).value();
+            Result result = new ShiftingBottleneckSolver().solve(instance, Long.MAX_VALUE);
+            assert result.schedule.isValid();
+            assert result.schedule.makespan() >= lowerBound;
+            // Schrage only, without reoptimization
+            Result plain = new ShiftingBottleneckSolver(1, 0).solve(instance, Long.MAX_VALUE);
+            assert plain.schedule.isValid();
+        }
+        // the optimum of ft06 is 55
+        Instance ft06 = Instance.fromFile(Paths.get("instances/ft06"));
+        assert new ShiftingBottleneckSolver().solve(ft06, Long.MAX_VALUE).schedule.makespan() <= 60;
+    }
+
+    @Test
+    public void testDeadline() throws IOException {
+        // past the deadline, the remaining machines are sequenced by Schrage's heuristic : the schedule is still valid
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Result result = new ShiftingBottleneckSolver().solve(instance, 0);
+        assert result.schedule.isValid();
+        assert result.cause == Result.ExitCause.Timeout;
+    }
+}
@@ -0,0 +1,224 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Schedule;
+import jobshop.encodings.CompactResourceOrder;
+import jobshop.encodings.ResourceOrder;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+public class TSABSolverTests {
+
+    @Test
+    public void testTabooFifo() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        TSABSolver.TabooFifo taboo = new TSABSolver.TabooFifo(instance);
+        // a move forbidding several orders
+        taboo.newMove();
+        taboo.forbid(1, 2, 3);
+        taboo.forbid(1, 2, 4);
+        assert taboo.isForbidden(1, 2, 3) && taboo.isForbidden(1, 2, 4);
+        assert !taboo.isForbidden(1, 3, 2);
+        assert !taboo.isForbidden(0, 2, 3);
+        TSABSolver.TabooFifo saved = new TSABSolver.TabooFifo(instance);
+        saved.copyFrom(taboo);
+
+        // the orders of the oldest move are forgotten together, after TABOO_LENGTH other moves
+        for(int k = 1; k < TSABSolver.TABOO_LENGTH; k++) {
+            taboo.newMove();
+            taboo.forbid(0, k, k + 1);
+        }
+        assert taboo.isForbidden(1, 2, 3) && taboo.isForbidden(1, 2, 4);
+        taboo.newMove();
+        taboo.forbid(0, 0, 1);
+        assert !taboo.isForbidden(1, 2, 3) && !taboo.isForbidden(1, 2, 4);
+        for(int k = 0; k < TSABSolver.TABOO_LENGTH; k++)
+            assert taboo.isForbidden(0, k, k + 1);
+
+        // the copy is independent
+        assert saved.isForbidden(1, 2, 3) && !saved.isForbidden(0, 0, 1);
+        saved.clear();
+        assert !saved.isForbidden(1, 2, 3);
+    }
+
+    @Test
+    public void testForbidReverse() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        CompactResourceOrder order = start(instance);
+        int[] before = order.jobs.clone();
+
+        // the task at position 1 of machine 0 moves after the tasks at positions 2 to 5 : each of them must stay after it
+        order.move(0, 1, 5);
+        TSABSolver.TabooFifo taboo = new TSABSolver.TabooFifo(instance);
+        TSABSolver.forbidReverse(0, 1, 5, order, taboo);
+        for(int i = 2; i <= 5; i++)
+            assert taboo.isForbidden(0, before[1], before[i]);
+        assert !taboo.isForbidden(0, before[1], before[6]);
+        // putting it back before any of them is taboo, moving it further is not
+        for(int to = 1; to < 5; to++)
+            assert TSABSolver.isTaboo(0, 5, to, order, taboo);
+        assert !TSABSolver.isTaboo(0, 5, 6, order, taboo);
+
+        // backward : the task at position 7 of machine 1 moves before the tasks at positions 3 to 6
+        order.move(1, 7, 3);
+        taboo.clear();
+        TSABSolver.forbidReverse(1, 7, 3, order, taboo);
+        for(int i = 3; i < 7; i++)
+            assert taboo.isForbidden(1, before[instance.numJobs + i], before[instance.numJobs + 7]);
+        assert TSABSolver.isTaboo(1, 3, 7, order, taboo);
+        assert TSABSolver.isTaboo(1, 3, 4, order, taboo);
+        assert !TSABSolver.isTaboo(1, 3, 2, order, taboo);
+    }
+
+    @Test
+    public void testAspiration() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        TSABSolver solver = new TSABSolver(0, 0, TSABSolver.N6, new BasicSolver());
+        MoveEvaluator evaluator = new MoveEvaluator(instance);
+        MoveEvaluator neighborEvaluator = new MoveEvaluator(instance);
+        Neighborhood moves = new Neighborhood(instance, Neighborhood.N6);
+
+        // walk along the moves of smallest estimate until the first one is underestimated
+        CompactResourceOrder order = start(instance);
+        int first = -1;
+        int makespan = 0;
+        for(int step = 0; step < 100 && first < 0; step++) {
+            evaluator.load(order);
+            moves.generate(evaluator);
+            moves.sortByEstimate();
+            int k = moves.move(0);
+            moves.apply(k, order);
+            makespan = neighborEvaluator.evaluate(order);
+            if(makespan > moves.estimates[k]) {
+                moves.undo(k, order);
+                first = k;
+            }
+        }
+        assert first >= 0;
+
+        // the first move is taboo : its estimate improves a best makespan equal to its exact one, which it does not
+        TSABSolver.TabooFifo taboo = new TSABSolver.TabooFifo(instance);
+        taboo.newMove();
+        int machine = moves.machines[first], from = moves.froms[first], to = moves.tos[first];
+        int passed = from < to ? from + 1 : from - 1;
+        if(from < to)
+            taboo.forbid(machine, order.job(machine, passed), order.job(machine, from));
+        else
+            taboo.forbid(machine, order.job(machine, from), order.job(machine, passed));
+        assert TSABSolver.isTaboo(machine, from, to, order, taboo);
+        CompactResourceOrder saved = order.clone();
+        int selected = solver.selectAndApply(moves, order, taboo, neighborEvaluator, makespan);
+        assert selected >= 0 && selected != first;
+        moves.undo(selected, order);
+        assert order.equals(saved);
+
+        // it is taken as soon as its exact makespan improves the best one
+        assert solver.selectAndApply(moves, order, taboo, neighborEvaluator, makespan + 1) == first;
+        assert neighborEvaluator.makespan() == makespan;
+    }
+
+    @Test
+    public void testCycleDetector() {
+        // makespans of period 3 : detected when they have matched the ones of 3 iterations before MIN_CYCLE_LENGTH times
+        TSABSolver.CycleDetector cycles = new TSABSolver.CycleDetector();
+        int[] period = {10, 12, 11};
+        int iteration = 0;
+        while(!cycles.record(period[iteration % period.length]))
+            iteration++;
+        assert iteration == period.length + TSABSolver.MIN_CYCLE_LENGTH - 1;
+
+        // a long period must be repeated CYCLE_REPEATS times
+        cycles.reset();
+        int length = TSABSolver.MIN_CYCLE_LENGTH;
+        iteration = 0;
+        while(!cycles.record(iteration % length))
+            iteration++;
+        assert iteration == length + TSABSolver.CYCLE_REPEATS * length - 1;
+
+        // a walk that does not repeat itself
+        cycles.reset();
+        for(int k = 0; k < 1000; k++)
+            assert !cycles.record(1000 - k);
+    }
+
+    @Test
+    public void testCycleTriggersBackJump() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        TSABSolver solver = new TSABSolver(0, 0, TSABSolver.N5, new BasicSolver());
+        MoveEvaluator evaluator = new MoveEvaluator(instance);
+        MoveEvaluator neighborEvaluator = new MoveEvaluator(instance);
+        CompactResourceOrder start = start(instance);
+        evaluator.load(start);
+        Neighborhood moves = new Neighborhood(instance, Neighborhood.N5);
+        int numMoves = moves.generate(evaluator);
+        moves.sortByEstimate();
+
+        // elite solution : the start, with the moves not taken by the walk
+        int taken = moves.move(0);
+        List<TSABSolver.Move> remaining = new ArrayList<>();
+        for(int i = 1; i < numMoves; i++) {
+            int k = moves.move(i);
+            remaining.add(new TSABSolver.Move(moves.machines[k], moves.froms[k], moves.tos[k], moves.estimates[k]));
+        }
+        TSABSolver.TabooFifo eliteTaboo = new TSABSolver.TabooFifo(instance);
+        eliteTaboo.newMove();
+        eliteTaboo.forbid(0, 1, 2);
+        Deque<TSABSolver.EliteSolution> elite = new ArrayDeque<>();
+        elite.addFirst(new TSABSolver.EliteSolution(start.clone(), eliteTaboo, remaining));
+
+        // a walk that swaps the same tasks back and forth : its makespans have a period of 2
+        CompactResourceOrder current = start.clone();
+        TSABSolver.CycleDetector cycles = new TSABSolver.CycleDetector();
+        int iterations = 0;
+        boolean cycling = false;
+        while(!cycling) {
+            moves.apply(taken, current);
+            cycling = cycles.record(neighborEvaluator.evaluate(current));
+            iterations++;
+            assert iterations <= 2 + TSABSolver.MIN_CYCLE_LENGTH;
+        }
+
+        // the back jump restores the elite solution and its taboo list, and takes its best remaining move
+        TSABSolver.Move next = remaining.get(0);
+        CompactResourceOrder expected = start.clone();
+        next.applyOn(expected);
+        TSABSolver.TabooFifo taboo = new TSABSolver.TabooFifo(instance);
+        int makespan = solver.jumpBack(elite, current, taboo, neighborEvaluator);
+        assert current.equals(expected);
+        assert makespan == evaluator.evaluate(expected);
+        assert taboo.isForbidden(0, 1, 2);
+        assert TSABSolver.isTaboo(next.machine, next.to, next.from, current, taboo);
+        assert remaining.size() == numMoves - 2;
+
+        // each back jump takes the next move, the elite solution is dropped once they are all taken
+        for(int k = 2; k < numMoves; k++)
+            assert solver.jumpBack(elite, current, taboo, neighborEvaluator) >= 0;
+        assert solver.jumpBack(elite, current, taboo, neighborEvaluator) == -1;
+        assert elite.isEmpty();
+    }
+
+    @Test
+    public void testSearch() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        int start = new BasicSolver().solve(instance, Long.MAX_VALUE).schedule.makespan();
+        // a short stagnation makes the search jump back often and exhaust its elite solutions
+        for(int maxStagnation : new int[] {5, 200}) {
+            for(int neighborhood : new int[] {TSABSolver.N5, TSABSolver.N6}) {
+                TSABSolver solver = new TSABSolver(2000, maxStagnation, neighborhood, new BasicSolver());
+                Schedule schedule = solver.solve(instance, Long.MAX_VALUE).schedule;
+                assert schedule.isValid();
+                assert schedule.makespan() < start;
+            }
+        }
+    }
+
+    private static CompactResourceOrder start(Instance instance) {
+        return new CompactResourceOrder(new ResourceOrder(new BasicSolver().solve(instance, Long.MAX_VALUE).schedule));
+    }
+}
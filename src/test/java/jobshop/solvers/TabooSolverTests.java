@@ -0,0 +1,136 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.encodings.CompactResourceOrder;
+import jobshop.encodings.ResourceOrder;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+public class TabooSolverTests {
+
+    @Test
+    public void testTabooList() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        TabooSolver.TabooList taboo = new TabooSolver.TabooList(instance);
+        taboo.forbid(1, 2, 3, 10);
+        assert taboo.expiry(1, 2, 3) == 10;
+        assert taboo.isTaboo(1, 2, 3, 9);
+        assert !taboo.isTaboo(1, 2, 3, 10);
+        // only this order on this machine
+        assert !taboo.isTaboo(1, 3, 2, 0);
+        assert !taboo.isTaboo(0, 2, 3, 0);
+        taboo.forbid(1, 2, 3, 20);
+        assert taboo.isTaboo(1, 2, 3, 15);
+        taboo.clear();
+        assert !taboo.isTaboo(1, 2, 3, 0);
+    }
+
+    @Test
+    public void testForbidReverse() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        CompactResourceOrder order = start(instance);
+        TabooSolver.TabooList taboo = new TabooSolver.TabooList(instance);
+        int machine = 2;
+
+        // the task at 1 passes over the tasks at 2, 3 and 4
+        int job = order.job(machine, 1);
+        order.move(machine, 1, 4);
+        TabooSolver.forbidReverse(machine, 1, 4, order, taboo, 10);
+        for(int i = 1; i < 4; i++)
+            assert taboo.expiry(machine, job, order.job(machine, i)) == 10;
+        // moving it back, or before any of the tasks it passed over, is taboo
+        assert TabooSolver.expiry(machine, 4, 1, order, taboo) == 10;
+        assert TabooSolver.expiry(machine, 4, 3, order, taboo) == 10;
+        assert TabooSolver.expiry(machine, 3, 4, order, taboo) == 10;
+        // moving it further, or moving other tasks, is not
+        assert TabooSolver.expiry(machine, 4, 6, order, taboo) == 0;
+        assert TabooSolver.expiry(machine, 5, 6, order, taboo) == 0;
+        assert TabooSolver.expiry(machine + 1, 4, 1, order, taboo) == 0;
+
+        // the task at 8 passes over the tasks at 6 and 7
+        job = order.job(machine, 8);
+        order.move(machine, 8, 6);
+        TabooSolver.forbidReverse(machine, 8, 6, order, taboo, 20);
+        for(int i = 7; i <= 8; i++)
+            assert taboo.expiry(machine, order.job(machine, i), job) == 20;
+        assert TabooSolver.expiry(machine, 6, 8, order, taboo) == 20;
+        assert TabooSolver.expiry(machine, 6, 7, order, taboo) == 20;
+        assert TabooSolver.expiry(machine, 6, 5, order, taboo) == 0;
+    }
+
+    @Test
+    public void testRestart() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        CompactResourceOrder first = start(instance);
+        CompactResourceOrder second = new CompactResourceOrder(new ResourceOrder(
+                new GluttonousSolver(GluttonousSolver.PRIORITY_SPT).solve(instance, Long.MAX_VALUE).schedule));
+        assert distance(first, second) > 4 * TabooSolver.MAX_PERTURBATION;
+        Deque<CompactResourceOrder> elite = new ArrayDeque<>();
+        elite.addFirst(first);
+        elite.addFirst(second);
+
+        TabooSolver solver = new TabooSolver(TabooSolver.UNTIL_DEADLINE, 10, GluttonousSolver.PRIORITY_SPT, 50);
+        TabooSolver.TabooList taboo = new TabooSolver.TabooList(instance);
+        MoveEvaluator evaluator = new MoveEvaluator(instance);
+        Random random = new Random(0);
+        int fromFirst = 0, fromSecond = 0;
+        for(int k = 0; k < 100; k++) {
+            taboo.forbid(0, 0, 1, 1000);
+            CompactResourceOrder current = new CompactResourceOrder(instance);
+            solver.restart(current, elite, taboo, random);
+            assert evaluator.evaluate(current) >= 0;
+            assert !taboo.isTaboo(0, 0, 1, 0);
+            // a few swaps away from one of the elite solutions, which are not modified
+            if(distance(current, first) <= 2 * TabooSolver.MAX_PERTURBATION)
+                fromFirst++;
+            else if(distance(current, second) <= 2 * TabooSolver.MAX_PERTURBATION)
+                fromSecond++;
+            else
+                assert false;
+        }
+        assert fromFirst > 0 && fromSecond > 0;
+        assert elite.getFirst() == second && elite.getLast() == first;
+    }
+
+    @Test
+    public void testUntilDeadline() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        GluttonousSolver seed = new GluttonousSolver(GluttonousSolver.PRIORITY_SPT);
+        int start = seed.solve(instance, Long.MAX_VALUE).schedule.makespan();
+
+        // the walk restarts after 20 iterations without improvement, until the deadline
+        long deadline = System.currentTimeMillis() + 400;
+        Result result = new TabooSolver(TabooSolver.UNTIL_DEADLINE, 10, seed, 20).solve(instance, deadline);
+        assert System.currentTimeMillis() >= deadline && System.currentTimeMillis() <= deadline + 500;
+        assert result.cause == Result.ExitCause.Timeout;
+        assert result.schedule.isValid();
+        assert result.schedule.makespan() <= start;
+
+        // a bounded walk stops before
+        deadline = System.currentTimeMillis() + 60000;
+        result = new TabooSolver(50, 10, seed, 20).solve(instance, deadline);
+        assert System.currentTimeMillis() < deadline;
+        assert result.cause == Result.ExitCause.NotProvedOptimal;
+        assert result.schedule.isValid();
+    }
+
+    private static CompactResourceOrder start(Instance instance) {
+        return new CompactResourceOrder(new ResourceOrder(new BasicSolver().solve(instance, Long.MAX_VALUE).schedule));
+    }
+
+    /** Number of positions at which the orders differ. */
+    private static int distance(CompactResourceOrder first, CompactResourceOrder second) {
+        int distance = 0;
+        for(int k = 0; k < first.jobs.length; k++) {
+            if(first.jobs[k] != second.jobs[k])
+                distance++;
+        }
+        return distance;
+    }
+}